@@ -19,6 +19,8 @@ package com.github.lucapino.jira;
 
 import com.github.lucapino.jira.helpers.IssuesReportHelper;
 import com.github.lucapino.jira.helpers.JiraClient;
+import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.maven.plugin.MojoFailureException;
@@ -108,26 +110,40 @@ public abstract class AbstractJiraMavenReport extends AbstractMavenReport {
      */
     @Parameter(defaultValue = "${project.version}", required = true)
     public String releaseVersion;
+    /**
+     * Binary snapshot of the downloaded issues, shared with the other goals
+     * running the same query in this build.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/jira/issues.bin")
+    protected File issuesSnapshotFile;
+    /**
+     * Maximum age, in seconds, of an issues snapshot to be reused instead of
+     * querying JIRA again. Set it to 0 to always query JIRA.
+     */
+    @Parameter(defaultValue = "600")
+    protected int issuesSnapshotMaxAge = 600;
 
     /**
      * Valid JIRA columns.
      */
-    protected static final Map<String, Integer> JIRA_COLUMNS = new HashMap<String, Integer>(15);
+    protected static final Map<String, Integer> JIRA_COLUMNS;
 
     static {
-        JIRA_COLUMNS.put("Assignee", Integer.valueOf(IssuesReportHelper.COLUMN_ASSIGNEE));
-        JIRA_COLUMNS.put("Component", Integer.valueOf(IssuesReportHelper.COLUMN_COMPONENT));
-        JIRA_COLUMNS.put("Created", Integer.valueOf(IssuesReportHelper.COLUMN_CREATED));
-        JIRA_COLUMNS.put("Fix Version", Integer.valueOf(IssuesReportHelper.COLUMN_FIX_VERSION));
-        JIRA_COLUMNS.put("Id", Integer.valueOf(IssuesReportHelper.COLUMN_ID));
-        JIRA_COLUMNS.put("Key", Integer.valueOf(IssuesReportHelper.COLUMN_KEY));
-        JIRA_COLUMNS.put("Priority", Integer.valueOf(IssuesReportHelper.COLUMN_PRIORITY));
-        JIRA_COLUMNS.put("Reporter", Integer.valueOf(IssuesReportHelper.COLUMN_REPORTER));
-        JIRA_COLUMNS.put("Resolution", Integer.valueOf(IssuesReportHelper.COLUMN_RESOLUTION));
-        JIRA_COLUMNS.put("Status", Integer.valueOf(IssuesReportHelper.COLUMN_STATUS));
-        JIRA_COLUMNS.put("Summary", Integer.valueOf(IssuesReportHelper.COLUMN_SUMMARY));
-        JIRA_COLUMNS.put("Type", Integer.valueOf(IssuesReportHelper.COLUMN_TYPE));
-        JIRA_COLUMNS.put("Updated", Integer.valueOf(IssuesReportHelper.COLUMN_UPDATED));
+        Map<String, Integer> columns = new HashMap<String, Integer>(15);
+        columns.put("Assignee", Integer.valueOf(IssuesReportHelper.COLUMN_ASSIGNEE));
+        columns.put("Component", Integer.valueOf(IssuesReportHelper.COLUMN_COMPONENT));
+        columns.put("Created", Integer.valueOf(IssuesReportHelper.COLUMN_CREATED));
+        columns.put("Fix Version", Integer.valueOf(IssuesReportHelper.COLUMN_FIX_VERSION));
+        columns.put("Id", Integer.valueOf(IssuesReportHelper.COLUMN_ID));
+        columns.put("Key", Integer.valueOf(IssuesReportHelper.COLUMN_KEY));
+        columns.put("Priority", Integer.valueOf(IssuesReportHelper.COLUMN_PRIORITY));
+        columns.put("Reporter", Integer.valueOf(IssuesReportHelper.COLUMN_REPORTER));
+        columns.put("Resolution", Integer.valueOf(IssuesReportHelper.COLUMN_RESOLUTION));
+        columns.put("Status", Integer.valueOf(IssuesReportHelper.COLUMN_STATUS));
+        columns.put("Summary", Integer.valueOf(IssuesReportHelper.COLUMN_SUMMARY));
+        columns.put("Type", Integer.valueOf(IssuesReportHelper.COLUMN_TYPE));
+        columns.put("Updated", Integer.valueOf(IssuesReportHelper.COLUMN_UPDATED));
+        JIRA_COLUMNS = Collections.unmodifiableMap(columns);
     }
 
     protected JiraClient client;
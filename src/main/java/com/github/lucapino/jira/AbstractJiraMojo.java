@@ -17,8 +17,13 @@
  */
 package com.github.lucapino.jira;
 
+import com.github.lucapino.jira.helpers.BuildCache;
 import com.github.lucapino.jira.helpers.JiraClient;
-import com.github.lucapino.jira.helpers.TemplateEvaluator;
+import com.github.lucapino.jira.helpers.RequestThrottle;
+import com.github.lucapino.jira.helpers.VersionIndex;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -94,8 +99,15 @@ public abstract class AbstractJiraMojo extends AbstractMojo {
      */
     @Parameter(defaultValue = "false")
     protected boolean runOnlyAtExecutionRoot;
+    /**
+     * Maximum number of requests per second sent to JIRA by the goals issuing
+     * many requests. 0 means no limit.
+     */
+    @Parameter(defaultValue = "0")
+    protected int maxRequestsPerSecond;
 
-    private TemplateEvaluator evaluator;
+    private RequestThrottle requestThrottle;
+    private final ConcurrentMap<String, VersionIndex> versionIndexes = new ConcurrentHashMap<>();
     protected JiraClient jiraClient;
 
     private void initJiraClient() throws MojoFailureException {
@@ -122,24 +134,84 @@ public abstract class AbstractJiraMojo extends AbstractMojo {
                 log.info("Skipping Plugin execution.");
                 return;
             }
+            // created before any worker thread can ask for it
+            requestThrottle = new RequestThrottle(maxRequestsPerSecond);
             try {
                 initJiraClient();
                 doExecute();
-                jiraClient.getRestClient().close();
+            } catch (MojoFailureException e) {
+                throw e;
             } catch (Exception e) {
                 log.error("Error when executing mojo", e);
                 // XXX: Por enquanto nao faz nada.
+            } finally {
+                closeJiraClient();
             }
         }
     }
 
-    public TemplateEvaluator getEvaluator() {
-        if (evaluator == null) {
-            getLog().debug("Initializing Template Helper...");
-            evaluator = new TemplateEvaluator(project);
-            getLog().debug("Template Helper initialized");
+    private void closeJiraClient() {
+        if (jiraClient != null) {
+            try {
+                jiraClient.getRestClient().close();
+            } catch (IOException e) {
+                getLog().warn("Unable to close the JIRA client", e);
+            }
+            jiraClient = null;
+        }
+    }
+
+    public RequestThrottle getRequestThrottle() {
+        return requestThrottle;
+    }
+
+    /**
+     * Returns the index of the JIRA project versions. The index is downloaded
+     * once and shared by all the goals of the build working on the same
+     * project.
+     *
+     * @return the version index
+     * @throws IOException if the versions cannot be downloaded
+     */
+    protected VersionIndex getVersionIndex() throws IOException {
+        return getVersionIndex(jiraProjectKey);
+    }
+
+    /**
+     * Returns the index of the versions of the given JIRA project.
+     *
+     * @param projectKey the project key
+     * @return the version index
+     * @throws IOException if the versions cannot be downloaded
+     * @see #getVersionIndex()
+     */
+    protected VersionIndex getVersionIndex(String projectKey) throws IOException {
+        VersionIndex versionIndex = versionIndexes.get(projectKey);
+        if (versionIndex == null) {
+            String key = "versions:" + jiraURL + ':' + projectKey;
+            versionIndex = BuildCache.get(mavenSession, key);
+            if (versionIndex == null) {
+                getLog().debug("Downloading versions of project " + projectKey);
+                versionIndex = BuildCache.getOrCreate(mavenSession, key, loadVersionIndex(projectKey));
+            }
+            VersionIndex cached = versionIndexes.putIfAbsent(projectKey, versionIndex);
+            if (cached != null) {
+                versionIndex = cached;
+            }
         }
-        return evaluator;
+        return versionIndex;
+    }
+
+    /**
+     * Downloads the versions of the given JIRA project, when no goal of the
+     * build did it already. The versions are read from the paged resource.
+     *
+     * @param projectKey the project key
+     * @return the version index
+     * @throws IOException if the versions cannot be downloaded
+     */
+    protected VersionIndex loadVersionIndex(String projectKey) throws IOException {
+        return VersionIndex.load(jiraClient, projectKey);
     }
 
     public abstract void doExecute() throws Exception;
@@ -16,11 +16,9 @@
  */
 package com.github.lucapino.jira;
 
-import com.atlassian.jira.rest.client.api.domain.Project;
 import com.atlassian.jira.rest.client.api.domain.Version;
 import com.atlassian.jira.rest.client.api.domain.input.VersionInput;
-import com.github.lucapino.jira.helpers.RemoteVersionComparator;
-import java.util.Comparator;
+import com.github.lucapino.jira.helpers.VersionIndex;
 import org.apache.commons.lang.WordUtils;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Execute;
@@ -34,7 +32,7 @@ import org.apache.maven.plugins.annotations.Parameter;
  * @author George Gastaldi
  * @author Luca Tagliani
  */
-@Mojo(name = "create-new-jira-version")
+@Mojo(name = "create-new-jira-version", threadSafe = true)
 @Execute(goal = "create-new-jira-version", phase = LifecyclePhase.DEPLOY)
 public class CreateNewVersionMojo extends AbstractJiraMojo {
 
@@ -53,17 +51,12 @@ public class CreateNewVersionMojo extends AbstractJiraMojo {
      */
     @Parameter(defaultValue = "false")
     boolean finalNameUsedForVersion;
-    /**
-     * Comparator for discovering the latest release
-     */
-    Comparator<Version> remoteVersionComparator = new RemoteVersionComparator();
 
     @Override
     public void doExecute() throws Exception {
         Log log = getLog();
 
-        Project jiraProject = jiraClient.getRestClient().getProjectClient().getProject(jiraProjectKey).claim();
-        Iterable<Version> versions = jiraProject.getVersions();
+        VersionIndex versionIndex = getVersionIndex();
         String newDevVersion;
 
         if (finalNameUsedForVersion) {
@@ -72,17 +65,14 @@ public class CreateNewVersionMojo extends AbstractJiraMojo {
             newDevVersion = developmentVersion;
         }
 
-        // Removing -SNAPSHOT suffix for safety and sensible formatting
-        newDevVersion = WordUtils.capitalize(newDevVersion.replace(
-                "-SNAPSHOT", "").replace("-", " "));
-
-        boolean versionExists = isVersionAlreadyPresent(versions, newDevVersion);
+        newDevVersion = toJiraVersionName(newDevVersion);
 
-        if (!versionExists) {
+        if (!versionIndex.contains(newDevVersion)) {
 
             VersionInput newVersion = new VersionInput(jiraProjectKey, newDevVersion, null, null, false, false);
             log.debug("New Development version in JIRA is: " + newDevVersion);
-            jiraClient.getRestClient().getVersionRestClient().createVersion(newVersion).claim();
+            Version createdVersion = jiraClient.getRestClient().getVersionRestClient().createVersion(newVersion).claim();
+            versionIndex.put(createdVersion);
 
             log.info("Version created in JIRA for project key "
                     + jiraProjectKey + " : " + newDevVersion);
@@ -95,27 +85,13 @@ public class CreateNewVersionMojo extends AbstractJiraMojo {
     }
 
     /**
-     * Check if version is already present on array
+     * Formats a Maven version as a JIRA version name.
      *
-     * @param versions
-     * @param newDevVersion
-     * @return
+     * @param version the Maven version
+     * @return the JIRA version name
      */
-    boolean isVersionAlreadyPresent(Iterable<Version> versions,
-            String newDevVersion) {
-        boolean versionExists = false;
-
-        if (versions != null) {
-            // Creating new Version (if not already created)
-            for (Version remoteVersion : versions) {
-                if (remoteVersion.getName().equalsIgnoreCase(newDevVersion)) {
-                    versionExists = true;
-                    break;
-                }
-            }
-        }
-
-        // existant
-        return versionExists;
+    static String toJiraVersionName(String version) {
+        // Removing -SNAPSHOT suffix for safety and sensible formatting
+        return WordUtils.capitalize(version.replace("-SNAPSHOT", "").replace("-", " "));
     }
 }
@@ -15,15 +15,37 @@
  */
 package com.github.lucapino.jira;
 
+import com.atlassian.jira.rest.client.api.domain.Version;
+import com.github.lucapino.jira.helpers.IssueSummary;
 import com.github.lucapino.jira.helpers.IssuesDownloader;
 import com.github.lucapino.jira.helpers.IssuesReportGenerator;
 import com.github.lucapino.jira.helpers.IssuesReportHelper;
+import com.github.lucapino.jira.helpers.IssuesSnapshot;
+import com.github.lucapino.jira.helpers.OutputFingerprint;
+import com.github.lucapino.jira.helpers.ParallelExecutor;
+import com.github.lucapino.jira.helpers.VersionIndex;
+import com.github.lucapino.jira.helpers.VersionOrdering;
 import com.github.lucapino.jira.model.JiraIssue;
+import java.io.File;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.reporting.MavenReportException;
 
 /**
@@ -31,9 +53,92 @@ import org.apache.maven.reporting.MavenReportException;
  *
  * @author tagliani
  */
-@Mojo(name = "jira-report")
+@Mojo(name = "jira-report", threadSafe = true)
 public class CreateReportMojo extends AbstractJiraMavenReport {
 
+    /**
+     * Fingerprint of the spooled report pages.
+     */
+    private static final String PAGE_SNAPSHOT = "report-page";
+
+    /**
+     * Number of issues on each page of the report. When greater than 0 the
+     * issues are written to separate pages, linked from the report page, as
+     * they are downloaded, so that they are never all held in memory. Pages
+     * are only generated during the site generation; otherwise the report is
+     * a single page.
+     */
+    @Parameter(defaultValue = "0")
+    int reportPageSize;
+    /**
+     * Number of versions covered by the report, the release version and the
+     * ones before it, each in its own section after the trend of the issues
+     * across them. 0 reports the release version only.
+     */
+    @Parameter(defaultValue = "0")
+    int historyVersions;
+    /**
+     * Range of versions covered by the report, as <code>first..last</code>
+     * with either end optional, e.g. <code>2.0..2.4</code>. When
+     * historyVersions is also set, the last versions of the range are
+     * reported.
+     */
+    @Parameter
+    String historyRange;
+    /**
+     * Max number of versions whose issues are downloaded at the same time.
+     */
+    @Parameter(defaultValue = "4")
+    int historyParallelism = 4;
+    /**
+     * Pattern extracting the version from the JIRA version names when
+     * ordering them, e.g. <code>Release (.*)</code>.
+     */
+    @Parameter
+    String versionPattern;
+    /**
+     * Comma separated version qualifiers in release order, aliases joined by
+     * <code>=</code>. Defaults to
+     * <code>alpha=a,beta=b,milestone=m,rc=cr,snapshot,=final=ga=release,sp=sr</code>.
+     */
+    @Parameter
+    String versionQualifiers;
+    /**
+     * When the report is run on its own, skip it if the report file exists
+     * and neither the issues, checked with a search of their keys and update
+     * dates, nor the report parameters changed since it was written. A report
+     * of the site generation is always generated, since the site writes it.
+     */
+    @Parameter(defaultValue = "true")
+    boolean upToDateCheck = true;
+    /**
+     * File storing the fingerprint of the inputs of the report, for the
+     * up-to-date check.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/jira/jira-report.fingerprint")
+    File fingerprintFile;
+
+    /**
+     * Issues downloaded by this report by their JQL, so that the report of
+     * each locale of the site does not query JIRA again.
+     */
+    private final Map<String, List<JiraIssue>> issuesByJql = new HashMap<>();
+    /**
+     * Pages of the paged report by their JQL, spooled to temporary snapshots
+     * as they are downloaded, so that the report of each locale of the site
+     * writes them again without querying JIRA.
+     */
+    private final Map<String, List<File>> pagesByJql = new HashMap<>();
+    /**
+     * Issues of the versions covered by the report, downloaded once for all
+     * the locales.
+     */
+    private Map<String, List<JiraIssue>> historyIssues;
+    /**
+     * Digest of the issues computed by the up-to-date check.
+     */
+    private String issuesDigest;
+
     /**
      * @return true if we should generate the report.
      * @see org.apache.maven.reporting.AbstractMavenReport#canGenerateReport()
@@ -43,6 +148,36 @@ public class CreateReportMojo extends AbstractJiraMavenReport {
         return !skip;
     }
 
+    @Override
+    public void execute() throws MojoExecutionException {
+        // the fingerprint only covers the release version
+        if (!upToDateCheck || fingerprintFile == null || !canGenerateReport() || isHistoryReport()) {
+            super.execute();
+            return;
+        }
+        String fingerprint = null;
+        try {
+            fingerprint = getOutputFingerprint();
+            File reportFile = new File(getReportOutputDirectory(), getOutputName() + ".html");
+            if (OutputFingerprint.isUpToDate(fingerprintFile, fingerprint, Collections.singletonList(reportFile))) {
+                getLog().info("JIRA report is up to date");
+                return;
+            }
+            OutputFingerprint.clear(fingerprintFile);
+        } catch (MojoFailureException | IOException e) {
+            getLog().warn("Unable to check whether the JIRA report is up to date", e);
+            fingerprint = null;
+        }
+        super.execute();
+        if (fingerprint != null) {
+            try {
+                OutputFingerprint.store(fingerprintFile, fingerprint);
+            } catch (IOException e) {
+                getLog().warn("Unable to store the fingerprint of the JIRA report", e);
+            }
+        }
+    }
+
     @Override
     public void executeReport(Locale locale) throws MavenReportException {
         // Validate parameters
@@ -53,14 +188,32 @@ public class CreateReportMojo extends AbstractJiraMavenReport {
         }
 
         try {
-            // Download issues
-            IssuesDownloader issueDownloader = new IssuesDownloader();
+            IssuesDownloader issueDownloader = createIssuesDownloader();
             configureIssueDownloader(issueDownloader);
-            List<JiraIssue> issueList = issueDownloader.getIssueList();
-
-            // Generate the report
             IssuesReportGenerator report = new IssuesReportGenerator(IssuesReportHelper.toIntArray(columnIds));
 
+            if (isHistoryReport()) {
+                report.doGenerateHistoryReport(getBundle(locale), getSink(), getHistoryIssues(issueDownloader));
+                return;
+            }
+
+            if (reportPageSize > 0) {
+                if (getSinkFactory() != null) {
+                    generatePagedReport(getBundle(locale), report, issueDownloader);
+                    return;
+                }
+                getLog().info("Report pages are only generated by the site generation, generating a single page");
+            }
+
+            // Download issues, once for all the locales
+            String jql = issueDownloader.getJql();
+            List<JiraIssue> issueList = issuesByJql.get(jql);
+            if (issueList == null) {
+                issueList = issueDownloader.getIssueList();
+                issuesByJql.put(jql, issueList);
+            }
+
+            // Generate the report
             if (issueList.isEmpty()) {
                 report.doGenerateEmptyReport(getBundle(locale), getSink());
             } else {
@@ -89,11 +242,147 @@ public class CreateReportMojo extends AbstractJiraMavenReport {
     /* --------------------------------------------------------------------- */
  /* Private methods                                                       */
  /* --------------------------------------------------------------------- */
+    private boolean isHistoryReport() {
+        return historyVersions > 0 || historyRange != null;
+    }
+
+    /**
+     * Downloads the issues of the versions covered by the report, a query per
+     * version, sharing the strings of the issues.
+     *
+     * @return the issues by version name, in release order
+     */
+    private Map<String, List<JiraIssue>> getHistoryIssues(IssuesDownloader issueDownloader) throws MojoFailureException, MavenReportException {
+        if (historyIssues != null) {
+            return historyIssues;
+        }
+        List<String> versionNames = getHistoryVersionNames(issueDownloader.getJiraVersion());
+
+        ConcurrentMap<String, String> stringPool = new ConcurrentHashMap<>();
+        List<VersionDownload> downloads = new ArrayList<>(versionNames.size());
+        for (String versionName : versionNames) {
+            IssuesDownloader versionDownloader = createIssuesDownloader();
+            configureIssueDownloader(versionDownloader);
+            versionDownloader.setJiraVersion(versionName);
+            // the snapshot holds a single query
+            versionDownloader.setSnapshotFile(null);
+            versionDownloader.setStringPool(stringPool);
+            downloads.add(new VersionDownload(versionDownloader));
+        }
+        List<List<JiraIssue>> versionIssues;
+        try {
+            versionIssues = ParallelExecutor.invokeAll(downloads, historyParallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException(e, "Interrupted while downloading the issues of the versions", e.getMessage());
+        } catch (ExecutionException e) {
+            throw new MojoFailureException(e, "Unable to download the issues of the versions", e.getMessage());
+        }
+
+        Map<String, List<JiraIssue>> issues = new LinkedHashMap<>();
+        for (int i = 0; i < versionNames.size(); i++) {
+            issues.put(versionNames.get(i), versionIssues.get(i));
+        }
+        historyIssues = issues;
+        return issues;
+    }
+
+    /**
+     * Selects the versions covered by the report among the versions of the
+     * project.
+     *
+     * @param releaseVersionName the JIRA name of the release version, the
+     * last one covered when there is no range
+     * @return the version names, in release order
+     */
+    private List<String> getHistoryVersionNames(String releaseVersionName) throws MojoFailureException, MavenReportException {
+        String first = null;
+        String last = releaseVersionName;
+        if (historyRange != null) {
+            int separator = historyRange.indexOf("..");
+            if (separator < 0) {
+                throw new MavenReportException("jira-maven-plugin: The historyRange '" + historyRange + "' is not first..last.");
+            }
+            first = historyRange.substring(0, separator).trim();
+            last = historyRange.substring(separator + 2).trim();
+        }
+
+        VersionOrdering ordering = new VersionOrdering(versionPattern, versionQualifiers);
+        List<Version> versions;
+        try {
+            versions = VersionIndex.load(getClient(), jiraProjectKey).getSortedVersions(ordering);
+        } catch (IOException e) {
+            throw new MojoFailureException(e, "Unable to read the versions of " + jiraProjectKey, e.getMessage());
+        }
+
+        List<String> selected = new ArrayList<>();
+        // the view lists the latest version first
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            String versionName = versions.get(i).getName();
+            if ((first == null || first.isEmpty() || ordering.compare(versionName, first) >= 0)
+                    && (last == null || last.isEmpty() || ordering.compare(versionName, last) <= 0)) {
+                selected.add(versionName);
+            }
+        }
+        if (historyVersions > 0 && selected.size() > historyVersions) {
+            selected = selected.subList(selected.size() - historyVersions, selected.size());
+        }
+        return selected;
+    }
+
+    /**
+     * Generates the issues on their own pages while they are downloaded, or
+     * from the pages spooled by the report of a previous locale, then the
+     * report page linking them.
+     */
+    private void generatePagedReport(ResourceBundle bundle, IssuesReportGenerator report, IssuesDownloader issueDownloader) {
+        String jql = issueDownloader.getJql();
+        ReportPages pages = new ReportPages(bundle, report, jql);
+        try {
+            List<File> spooledPages = pagesByJql.get(jql);
+            if (spooledPages == null) {
+                issueDownloader.downloadIssues(pages);
+                pages.flush();
+                pagesByJql.put(jql, pages.spooled);
+            } else {
+                pages.replay(spooledPages);
+            }
+        } catch (MojoFailureException e) {
+            getLog().warn(e);
+        }
+
+        if (pages.links.isEmpty()) {
+            report.doGenerateEmptyReport(bundle, getSink());
+        } else {
+            report.doGenerateIndex(bundle, getSink(), pages.links, pages.summary);
+        }
+    }
+
     private ResourceBundle getBundle(Locale locale) {
         return ResourceBundle.getBundle("jira-report", locale, this.getClass().getClassLoader());
     }
 
-    private void configureIssueDownloader(IssuesDownloader issueDownloader) {
+    /**
+     * Computes the fingerprint of everything a report run on its own is
+     * generated from.
+     */
+    private String getOutputFingerprint() throws MojoFailureException {
+        IssuesDownloader issueDownloader = createIssuesDownloader();
+        configureIssueDownloader(issueDownloader);
+        issuesDigest = issueDownloader.getIssuesDigest();
+        return IssuesSnapshot.fingerprint(CreateReportMojo.class.getPackage().getImplementationVersion(),
+                issueDownloader.getJql(), issuesDigest, url, columnNames, maxIssues, reportPageSize,
+                Locale.getDefault(), outputEncoding);
+    }
+
+    /**
+     * @return a new downloader of the report issues, to be configured
+     */
+    IssuesDownloader createIssuesDownloader() {
+        return new IssuesDownloader();
+    }
+
+    private void configureIssueDownloader(IssuesDownloader issueDownloader) throws MojoFailureException {
         issueDownloader.setLog(getLog());
         issueDownloader.setMaxIssues(maxIssues);
         issueDownloader.setJiraUser(username);
@@ -101,6 +390,121 @@ public class CreateReportMojo extends AbstractJiraMavenReport {
         issueDownloader.setJqlTemplate(jqlTemplate);
         issueDownloader.setReleaseVersion(releaseVersion);
         issueDownloader.setJiraProjectKey(jiraProjectKey);
-        issueDownloader.setClient(client);
+        issueDownloader.setClient(getClient());
+        issueDownloader.setSnapshotFile(issuesSnapshotFile);
+        issueDownloader.setSnapshotMaxAge(issuesSnapshotMaxAge);
+        issueDownloader.setIssuesDigest(issuesDigest);
+    }
+
+    /**
+     * Collects the downloaded issues into pages of {@link #reportPageSize}
+     * issues, spooling and writing each page as soon as it is full.
+     */
+    private class ReportPages implements IssuesDownloader.PageHandler {
+
+        private final ResourceBundle bundle;
+        private final IssuesReportGenerator report;
+        private final String jql;
+        private final List<JiraIssue> pageIssues = new ArrayList<>(reportPageSize);
+        /**
+         * The labels of the written pages by their link.
+         */
+        private final Map<String, String> links = new LinkedHashMap<>();
+        /**
+         * The summary of the issues of all the pages.
+         */
+        private final IssueSummary summary = new IssueSummary();
+        /**
+         * The snapshots of the written pages, in page order.
+         */
+        private final List<File> spooled = new ArrayList<>();
+        private int written;
+
+        ReportPages(ResourceBundle bundle, IssuesReportGenerator report, String jql) {
+            this.bundle = bundle;
+            this.report = report;
+            this.jql = jql;
+        }
+
+        @Override
+        public void handlePage(List<JiraIssue> issues) throws MojoFailureException {
+            for (JiraIssue issue : issues) {
+                pageIssues.add(issue);
+                if (pageIssues.size() == reportPageSize) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * Spools the collected issues and writes them to a new page.
+         */
+        void flush() throws MojoFailureException {
+            if (pageIssues.isEmpty()) {
+                return;
+            }
+            try {
+                File snapshot = File.createTempFile(getOutputName() + "-", ".issues");
+                snapshot.deleteOnExit();
+                IssuesSnapshot.write(snapshot, jql, PAGE_SNAPSHOT, pageIssues);
+                spooled.add(snapshot);
+            } catch (IOException e) {
+                throw new MojoFailureException(e, "Unable to spool report page " + (links.size() + 1), e.getMessage());
+            }
+            writePage(pageIssues);
+            pageIssues.clear();
+        }
+
+        /**
+         * Writes the pages spooled by the report of a previous locale.
+         */
+        void replay(List<File> snapshots) throws MojoFailureException {
+            for (File snapshot : snapshots) {
+                List<JiraIssue> issues;
+                try {
+                    issues = IssuesSnapshot.read(snapshot, jql, PAGE_SNAPSHOT, Long.MAX_VALUE);
+                } catch (IOException e) {
+                    throw new MojoFailureException(e, "Unable to read spooled report page " + snapshot, e.getMessage());
+                }
+                if (issues == null) {
+                    throw new MojoFailureException("Spooled report page " + snapshot + " is missing");
+                }
+                writePage(issues);
+            }
+        }
+
+        private void writePage(List<JiraIssue> issues) throws MojoFailureException {
+            String pageName = getOutputName() + "-" + (links.size() + 1) + ".html";
+            try {
+                Sink sink = getSinkFactory().createSink(getReportOutputDirectory(), pageName);
+                try {
+                    report.doGenerateReportPage(bundle, sink, issues, summary);
+                } finally {
+                    sink.close();
+                }
+            } catch (IOException e) {
+                throw new MojoFailureException(e, "Unable to write report page " + pageName, e.getMessage());
+            }
+            links.put(pageName, MessageFormat.format(bundle.getString("report.issues.label.page"),
+                    String.valueOf(written + 1), String.valueOf(written + issues.size())));
+            written += issues.size();
+        }
+    }
+
+    /**
+     * Downloads the issues of one of the versions covered by the report.
+     */
+    private static class VersionDownload implements Callable<List<JiraIssue>> {
+
+        private final IssuesDownloader issueDownloader;
+
+        VersionDownload(IssuesDownloader issueDownloader) {
+            this.issueDownloader = issueDownloader;
+        }
+
+        @Override
+        public List<JiraIssue> call() throws MojoFailureException {
+            return issueDownloader.getIssueList();
+        }
     }
 }
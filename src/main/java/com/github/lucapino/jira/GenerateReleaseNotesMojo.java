@@ -17,21 +17,32 @@
 package com.github.lucapino.jira;
 
 import com.github.lucapino.jira.helpers.IssuesDownloader;
+import com.github.lucapino.jira.helpers.IssuesSnapshot;
 import com.github.lucapino.jira.helpers.JiraIssueComparator;
+import com.github.lucapino.jira.helpers.OutputFingerprint;
+import com.github.lucapino.jira.helpers.ParallelExecutor;
+import com.github.lucapino.jira.helpers.ReleaseNotesRenderer;
+import com.github.lucapino.jira.helpers.TemplateEngine;
+import com.github.lucapino.jira.helpers.TemplateEngines;
 import com.github.lucapino.jira.model.JiraIssue;
+import com.github.lucapino.jira.model.ReleaseNotesOutput;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Execute;
@@ -43,10 +54,15 @@ import org.apache.maven.plugins.annotations.Parameter;
  *
  * @author George Gastaldi
  */
-@Mojo(name = "generate-release-notes")
+@Mojo(name = "generate-release-notes", threadSafe = true)
 @Execute(goal = "generate-release-notes")
 public class GenerateReleaseNotesMojo extends AbstractJiraMojo {
 
+    /**
+     * Max number of release notes files written at the same time.
+     */
+    private static final int MAX_PARALLEL_OUTPUTS = 4;
+
     /**
      * JQL Template to generate release notes. Parameter 0 = Project Key
      * Parameter 1 = Fix version
@@ -75,11 +91,27 @@ public class GenerateReleaseNotesMojo extends AbstractJiraMojo {
      */
     @Parameter(name = "templateFile", property = "templateFile")
     File templateFile;
+    /**
+     * Engine rendering the template file: <code>velocity</code>,
+     * <code>mustache</code> or the name of an engine provided by a plugin
+     * dependency. Defaults to the engine handling the template file extension,
+     * or velocity.
+     */
+    @Parameter(name = "templateEngine", property = "templateEngine")
+    String templateEngine;
     /**
      * Target file
      */
     @Parameter(name = "targetFile", property = "targetFile", defaultValue = "${project.build.directory}/releaseNotes.vm", required = true)
     File targetFile;
+    /**
+     * Release notes files to generate from the same issues, each with its
+     * templateFile, targetFile and optional templateEngine. When set,
+     * templateFile and targetFile are ignored; beforeText and afterText
+     * apply to every file.
+     */
+    @Parameter(name = "outputs")
+    List<ReleaseNotesOutput> outputs;
     /**
      * Text to be appended BEFORE all issues details.
      */
@@ -90,6 +122,31 @@ public class GenerateReleaseNotesMojo extends AbstractJiraMojo {
      */
     @Parameter(name = "afterText")
     String afterText;
+    /**
+     * Binary snapshot of the downloaded issues, shared with the other goals
+     * running the same query in this build.
+     */
+    @Parameter(name = "issuesSnapshotFile", defaultValue = "${project.build.directory}/jira/issues.bin")
+    File issuesSnapshotFile;
+    /**
+     * Maximum age, in seconds, of an issues snapshot to be reused instead of
+     * querying JIRA again. Set it to 0 to always query JIRA.
+     */
+    @Parameter(name = "issuesSnapshotMaxAge", defaultValue = "600")
+    int issuesSnapshotMaxAge = 600;
+    /**
+     * Skip the generation when the release notes files exist and neither the
+     * issues, checked with a search of their keys and update dates, nor the
+     * templates or parameters changed since they were written.
+     */
+    @Parameter(name = "upToDateCheck", defaultValue = "true")
+    boolean upToDateCheck = true;
+    /**
+     * File storing the fingerprint of the inputs of the release notes, for
+     * the up-to-date check.
+     */
+    @Parameter(name = "fingerprintFile", defaultValue = "${project.build.directory}/jira/releaseNotes.fingerprint")
+    File fingerprintFile;
 
     @Override
     public void doExecute() throws Exception {
@@ -99,9 +156,77 @@ public class GenerateReleaseNotesMojo extends AbstractJiraMojo {
         } else {
             IssuesDownloader issuesDownloader = new IssuesDownloader();
             configureIssueDownloader(issuesDownloader);
+            String fingerprint = null;
+            if (upToDateCheck && fingerprintFile != null) {
+                fingerprint = getOutputFingerprint(issuesDownloader);
+                if (fingerprint != null) {
+                    List<File> targetFiles = new ArrayList<>();
+                    for (ReleaseNotesOutput releaseNotesOutput : getReleaseNotesOutputs()) {
+                        targetFiles.add(releaseNotesOutput.getTargetFile());
+                    }
+                    if (OutputFingerprint.isUpToDate(fingerprintFile, fingerprint, targetFiles)) {
+                        getLog().info("Release notes are up to date");
+                        return;
+                    }
+                }
+                OutputFingerprint.clear(fingerprintFile);
+            }
             List<JiraIssue> issues = issuesDownloader.getIssueList();
             output(issues);
+            if (fingerprint != null) {
+                OutputFingerprint.store(fingerprintFile, fingerprint);
+            }
+        }
+    }
+
+    /**
+     * Computes the fingerprint of everything the release notes are generated
+     * from, and ties the issues snapshot to the current issues.
+     *
+     * @return the fingerprint, or <code>null</code> if the issues cannot be
+     * checked
+     */
+    private String getOutputFingerprint(IssuesDownloader issuesDownloader) throws IOException {
+        String issuesDigest;
+        try {
+            issuesDigest = issuesDownloader.getIssuesDigest();
+        } catch (MojoFailureException e) {
+            getLog().warn("Unable to check whether the release notes are up to date");
+            return null;
         }
+        issuesDownloader.setIssuesDigest(issuesDigest);
+
+        List<Object> values = new ArrayList<>();
+        values.add(GenerateReleaseNotesMojo.class.getPackage().getImplementationVersion());
+        values.add(issuesDownloader.getJql());
+        values.add(issuesDigest);
+        values.add(jiraURL);
+        values.add(jiraProjectKey);
+        values.add(releaseVersion);
+        values.add(project == null ? null : project.getName());
+        values.add(announceParameters == null ? null : new TreeMap<Object, Object>(announceParameters));
+        values.add(beforeText);
+        values.add(afterText);
+        for (ReleaseNotesOutput releaseNotesOutput : getReleaseNotesOutputs()) {
+            values.add(releaseNotesOutput.getTargetFile());
+            values.add(releaseNotesOutput.getTemplateEngine());
+            values.add(OutputFingerprint.hash(releaseNotesOutput.getTemplateFile()));
+        }
+        return IssuesSnapshot.fingerprint(values.toArray());
+    }
+
+    /**
+     * @return the release notes files to generate
+     */
+    private List<ReleaseNotesOutput> getReleaseNotesOutputs() {
+        List<ReleaseNotesOutput> releaseNotes = new ArrayList<>();
+        if (outputs != null) {
+            releaseNotes.addAll(outputs);
+        }
+        if (targetFile != null && releaseNotes.isEmpty()) {
+            releaseNotes.add(new ReleaseNotesOutput(templateFile, targetFile, templateEngine));
+        }
+        return releaseNotes;
     }
 
     /**
@@ -112,68 +237,114 @@ public class GenerateReleaseNotesMojo extends AbstractJiraMojo {
     void output(List<JiraIssue> issues) throws IOException, MojoFailureException {
 
         Log log = getLog();
-        if (targetFile == null) {
+        List<ReleaseNotesOutput> releaseNotes = getReleaseNotesOutputs();
+        if (releaseNotes.isEmpty()) {
             log.warn("No targetFile specified. Ignoring");
             return;
         }
+        checkTargetFiles(releaseNotes);
         if (issues == null) {
             log.warn("No issues found. File will not be generated.");
             return;
         }
-        HashMap<Object, Object> parameters = new HashMap<>();
+        // issues are grouped once, and shared read-only by all the outputs
         HashMap<String, List<JiraIssue>> jiraIssues = processIssues(issues);
         List<JiraIssue> jiraIssuesList = new ArrayList<>();
-        for (List<JiraIssue> list : jiraIssues.values()) {
-            jiraIssuesList.addAll(list);
+        for (Map.Entry<String, List<JiraIssue>> entry : jiraIssues.entrySet()) {
+            jiraIssuesList.addAll(entry.getValue());
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
         }
-        parameters.put("issues", jiraIssuesList);
-        parameters.put("issuesMap", jiraIssues);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("issues", Collections.unmodifiableList(jiraIssuesList));
+        parameters.put("issuesMap", Collections.unmodifiableMap(jiraIssues));
         parameters.put("jiraURL", jiraURL);
         parameters.put("jiraProjectKey", jiraProjectKey);
         parameters.put("releaseVersion", releaseVersion);
+        parameters.put("project", project);
         if (announceParameters == null) {
             // empty Map to prevent NPE in velocity execution
             parameters.put("announceParameters", java.util.Collections.EMPTY_MAP);
         } else {
             parameters.put("announceParameters", announceParameters);
         }
+        parameters = Collections.unmodifiableMap(parameters);
 
-        boolean useDefault = false;
-        if (templateFile == null || !templateFile.exists()) {
-            useDefault = true;
-            // let's use the default one
-            // it/peng/maven/jira/releaseNotes.vm
-            InputStream defaultTemplate = this.getClass().getClassLoader().getResourceAsStream("releaseNotes.vm");
-            templateFile = File.createTempFile("releaseNotes.vm", null);
-            FileOutputStream fos = new FileOutputStream(templateFile);
-            IOUtils.copy(defaultTemplate, fos);
-            IOUtils.closeQuietly(defaultTemplate);
-            IOUtils.closeQuietly(fos);
+        List<Callable<Void>> tasks = new ArrayList<>(releaseNotes.size());
+        for (ReleaseNotesOutput releaseNotesOutput : releaseNotes) {
+            tasks.add(new OutputTask(releaseNotesOutput, parameters));
+        }
+        try {
+            ParallelExecutor.invokeAll(tasks, MAX_PARALLEL_OUTPUTS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail("Interrupted while writing the release notes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw fail("Invalid template engine", (Exception) e.getCause());
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw fail("Unable to write the release notes", e);
         }
+    }
 
-        String content = getEvaluator().evaluate(templateFile, parameters);
+    /**
+     * Fails if two outputs write the same file: rendered in parallel, they
+     * would race on the final move.
+     */
+    private void checkTargetFiles(List<ReleaseNotesOutput> releaseNotes) throws IOException, MojoFailureException {
+        Set<String> paths = new HashSet<>();
+        for (ReleaseNotesOutput releaseNotesOutput : releaseNotes) {
+            File target = releaseNotesOutput.getTargetFile();
+            if (target != null && !paths.add(target.getCanonicalPath())) {
+                throw new MojoFailureException("Several outputs write the release notes to " + target);
+            }
+        }
+    }
 
-        if (useDefault) {
-            // remove the temp file
-            templateFile.delete();
+    /**
+     * Writes the release notes to a single target file.
+     */
+    private void writeReleaseNotes(ReleaseNotesOutput releaseNotesOutput, Map<String, Object> parameters) throws IOException {
+        File template = releaseNotesOutput.getTemplateFile();
+        File target = releaseNotesOutput.getTargetFile();
+        TemplateEngine engine = null;
+        if (template != null && template.exists()) {
+            engine = TemplateEngines.get(releaseNotesOutput.getTemplateEngine(), template);
         }
-        
-        // this creates the parent folder and the file if they doesn't exist
-        OutputStreamWriter writer = new OutputStreamWriter(FileUtils.openOutputStream(targetFile), "UTF-8");
-        PrintWriter ps = new PrintWriter(writer);
 
+        // the notes are written aside and moved in place once complete
+        FileUtils.forceMkdir(target.getAbsoluteFile().getParentFile());
+        File tempFile = File.createTempFile(target.getName() + ".", ".tmp", target.getAbsoluteFile().getParentFile());
         try {
-            if (beforeText != null) {
-                ps.println(beforeText);
-            }
-            ps.println(content);
-            if (afterText != null) {
-                ps.println(afterText);
+            BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), Charset.forName("UTF-8"));
+            try {
+                if (beforeText != null) {
+                    writer.write(beforeText);
+                    writer.newLine();
+                }
+                if (engine == null) {
+                    // let's use the default one, compiled in the plugin
+                    @SuppressWarnings("unchecked")
+                    List<JiraIssue> issues = (List<JiraIssue>) parameters.get("issues");
+                    ReleaseNotesRenderer.render(project == null ? null : project.getName(), releaseVersion, issues, writer);
+                } else {
+                    engine.render(template, parameters, writer);
+                }
+                writer.newLine();
+                if (afterText != null) {
+                    writer.write(afterText);
+                    writer.newLine();
+                }
+            } finally {
+                writer.close();
             }
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } finally {
-            ps.flush();
-            IOUtils.closeQuietly(ps);
+            FileUtils.deleteQuietly(tempFile);
         }
+        getLog().debug("Release notes written to " + target);
     }
 
     public void setAfterText(String afterText) {
@@ -192,6 +363,26 @@ public class GenerateReleaseNotesMojo extends AbstractJiraMojo {
         this.jqlTemplate = jqlTemplate;
     }
 
+    /**
+     * Renders one of the release notes files.
+     */
+    private class OutputTask implements Callable<Void> {
+
+        private final ReleaseNotesOutput releaseNotesOutput;
+        private final Map<String, Object> parameters;
+
+        OutputTask(ReleaseNotesOutput releaseNotesOutput, Map<String, Object> parameters) {
+            this.releaseNotesOutput = releaseNotesOutput;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            writeReleaseNotes(releaseNotesOutput, parameters);
+            return null;
+        }
+    }
+
     private HashMap<String, List<JiraIssue>> processIssues(List<JiraIssue> issues) throws MojoFailureException {
         HashMap<String, List<JiraIssue>> jiraIssues = new HashMap<>();
         jiraIssues.put("add", new ArrayList<JiraIssue>());
@@ -229,5 +420,7 @@ public class GenerateReleaseNotesMojo extends AbstractJiraMojo {
         issueDownloader.setReleaseVersion(releaseVersion);
         issueDownloader.setJiraProjectKey(jiraProjectKey);
         issueDownloader.setClient(jiraClient);
+        issueDownloader.setSnapshotFile(issuesSnapshotFile);
+        issueDownloader.setSnapshotMaxAge(issuesSnapshotMaxAge);
     }
 }
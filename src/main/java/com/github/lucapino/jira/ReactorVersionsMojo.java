@@ -0,0 +1,206 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira;
+
+import com.atlassian.jira.rest.client.api.domain.Version;
+import com.atlassian.jira.rest.client.api.domain.input.VersionInput;
+import com.github.lucapino.jira.helpers.ParallelExecutor;
+import com.github.lucapino.jira.helpers.VersionIndex;
+import com.github.lucapino.jira.model.VersionResult;
+import com.github.lucapino.jira.model.VersionResult.Outcome;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.joda.time.DateTime;
+
+/**
+ * Goal that creates or releases, in a single run, the version of every
+ * module of the reactor in the JIRA project the module is mapped to.
+ *
+ * @author Luca Tagliani
+ */
+@Mojo(name = "reactor-jira-versions", aggregator = true, threadSafe = true)
+public class ReactorVersionsMojo extends AbstractJiraMojo {
+
+    /**
+     * Action to take on the versions: <code>create</code> or
+     * <code>release</code>.
+     */
+    @Parameter(defaultValue = "create", required = true)
+    String action;
+    /**
+     * JIRA project key of each module, by artifactId. Modules not listed use
+     * <code>jiraProjectKey</code>, or are skipped if it is not set.
+     */
+    @Parameter
+    Map<String, String> projectKeys;
+    /**
+     * Max number of JIRA projects processed at the same time.
+     */
+    @Parameter(defaultValue = "4")
+    int parallelism = 4;
+    /**
+     * The projects in the reactor.
+     */
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true)
+    List<MavenProject> reactorProjects;
+
+    @Override
+    public void doExecute() throws Exception {
+        boolean release;
+        if ("create".equalsIgnoreCase(action)) {
+            release = false;
+        } else if ("release".equalsIgnoreCase(action)) {
+            release = true;
+        } else {
+            throw new MojoFailureException("Unknown action '" + action + "', use create or release");
+        }
+        // versions to handle, by project
+        Map<String, Map<String, List<String>>> versions = new LinkedHashMap<>();
+        for (MavenProject module : reactorProjects) {
+            String projectKey = projectKeys == null ? null : projectKeys.get(module.getArtifactId());
+            if (projectKey == null) {
+                projectKey = jiraProjectKey;
+            }
+            if (projectKey == null) {
+                getLog().debug("No JIRA project for module " + module.getArtifactId());
+                continue;
+            }
+            Map<String, List<String>> projectVersions = versions.get(projectKey);
+            if (projectVersions == null) {
+                projectVersions = new LinkedHashMap<>();
+                versions.put(projectKey, projectVersions);
+            }
+            String versionName = CreateNewVersionMojo.toJiraVersionName(module.getVersion());
+            List<String> modules = projectVersions.get(versionName);
+            if (modules == null) {
+                modules = new ArrayList<>();
+                projectVersions.put(versionName, modules);
+            }
+            modules.add(module.getArtifactId());
+        }
+
+        List<ProjectTask> tasks = new ArrayList<>(versions.size());
+        for (Map.Entry<String, Map<String, List<String>>> entry : versions.entrySet()) {
+            tasks.add(new ProjectTask(entry.getKey(), entry.getValue().keySet(), release));
+        }
+        List<VersionResult> results = new ArrayList<>();
+        for (List<VersionResult> projectResults : ParallelExecutor.invokeAll(tasks, parallelism)) {
+            results.addAll(projectResults);
+        }
+        if (logResults(results, versions) > 0) {
+            throw new MojoFailureException("Some JIRA versions could not be " + (release ? "released" : "created"));
+        }
+    }
+
+    /**
+     * Logs a table with the outcome of every version.
+     *
+     * @return the number of failed operations
+     */
+    private int logResults(List<VersionResult> results, Map<String, Map<String, List<String>>> versions) {
+        Log log = getLog();
+        String format = "%-12s %-20s %-10s %s";
+        log.info(String.format(format, "Project", "Version", "Outcome", "Modules"));
+        int failed = 0;
+        for (VersionResult result : results) {
+            String modules = String.valueOf(versions.get(result.getProjectKey()).get(result.getVersionName()));
+            String line = String.format(format, result.getProjectKey(), result.getVersionName(), result.getOutcome(), modules);
+            if (result.getOutcome() == Outcome.FAILED || result.getOutcome() == Outcome.NOT_FOUND) {
+                failed++;
+                log.error(line + ": " + result.getMessage());
+            } else {
+                log.info(line);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Creates or releases the versions of a single JIRA project.
+     */
+    private class ProjectTask implements Callable<List<VersionResult>> {
+
+        private final String projectKey;
+        private final Iterable<String> versionNames;
+        private final boolean release;
+
+        ProjectTask(String projectKey, Iterable<String> versionNames, boolean release) {
+            this.projectKey = projectKey;
+            this.versionNames = versionNames;
+            this.release = release;
+        }
+
+        @Override
+        public List<VersionResult> call() {
+            List<VersionResult> results = new ArrayList<>();
+            VersionIndex versionIndex;
+            try {
+                getRequestThrottle().acquire();
+                versionIndex = getVersionIndex(projectKey);
+            } catch (Exception e) {
+                for (String versionName : versionNames) {
+                    results.add(new VersionResult(projectKey, versionName, Outcome.FAILED, e.getMessage()));
+                }
+                return results;
+            }
+            for (String versionName : versionNames) {
+                try {
+                    results.add(release ? release(versionIndex, versionName) : create(versionIndex, versionName));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results.add(new VersionResult(projectKey, versionName, Outcome.FAILED, "Interrupted"));
+                } catch (RuntimeException e) {
+                    results.add(new VersionResult(projectKey, versionName, Outcome.FAILED, e.getMessage()));
+                }
+            }
+            return results;
+        }
+
+        private VersionResult create(VersionIndex versionIndex, String versionName) throws InterruptedException {
+            if (versionIndex.contains(versionName)) {
+                return new VersionResult(projectKey, versionName, Outcome.UNCHANGED, "Already created");
+            }
+            getRequestThrottle().acquire();
+            VersionInput newVersion = new VersionInput(projectKey, versionName, null, null, false, false);
+            versionIndex.put(jiraClient.getRestClient().getVersionRestClient().createVersion(newVersion).claim());
+            return new VersionResult(projectKey, versionName, Outcome.CREATED, null);
+        }
+
+        private VersionResult release(VersionIndex versionIndex, String versionName) throws InterruptedException {
+            Version remoteVersion = versionIndex.get(versionName);
+            if (remoteVersion == null) {
+                return new VersionResult(projectKey, versionName, Outcome.NOT_FOUND, "Version not found");
+            }
+            if (remoteVersion.isReleased()) {
+                return new VersionResult(projectKey, versionName, Outcome.UNCHANGED, "Already released");
+            }
+            getRequestThrottle().acquire();
+            VersionInput releasedVersion = new VersionInput(projectKey, remoteVersion.getName(), remoteVersion.getDescription(),
+                    new DateTime(), remoteVersion.isArchived(), true);
+            VersionHolder holder = new VersionHolder(releasedVersion, remoteVersion.getSelf());
+            versionIndex.put(jiraClient.getRestClient().getVersionRestClient().updateVersion(holder.getVersionURI(), holder.getVersion()).claim());
+            return new VersionResult(projectKey, versionName, Outcome.RELEASED, null);
+        }
+    }
+}
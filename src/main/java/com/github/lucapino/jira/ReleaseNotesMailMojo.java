@@ -40,7 +40,7 @@ import org.codehaus.plexus.util.IOUtil;
  *
  * @author Luca Tagliani
  */
-@Mojo(name = "mail-release-notes")
+@Mojo(name = "mail-release-notes", threadSafe = true)
 @Execute(goal = "generate-release-notes")
 public class ReleaseNotesMailMojo extends AbstractJiraMojo {
 
@@ -16,14 +16,11 @@
  */
 package com.github.lucapino.jira;
 
-import com.atlassian.jira.rest.client.api.domain.Project;
 import com.atlassian.jira.rest.client.api.domain.Version;
 import com.atlassian.jira.rest.client.api.domain.input.VersionInput;
-import com.github.lucapino.jira.helpers.RemoteVersionComparator;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-import org.apache.commons.collections.IteratorUtils;
+import com.github.lucapino.jira.helpers.VersionIndex;
+import com.github.lucapino.jira.helpers.VersionOrdering;
+import java.io.IOException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Execute;
@@ -38,7 +35,7 @@ import org.joda.time.DateTime;
  * @author George Gastaldi
  * @author Luca Tagliani
  */
-@Mojo(name = "release-jira-version")
+@Mojo(name = "release-jira-version", threadSafe = true)
 @Execute(goal = "release-jira-version", phase = LifecyclePhase.DEPLOY)
 public class ReleaseVersionMojo extends AbstractJiraMojo {
 
@@ -53,9 +50,19 @@ public class ReleaseVersionMojo extends AbstractJiraMojo {
     @Parameter(defaultValue = "true")
     boolean autoDiscoverLatestRelease;
     /**
-     * Comparator for discovering the latest release
+     * Pattern extracting the version from the JIRA version names when
+     * discovering the latest release, e.g. <code>Release (.*)</code>. Versions
+     * not matching it are never discovered.
      */
-    Comparator<Version> remoteVersionComparator = new RemoteVersionComparator();
+    @Parameter
+    String versionPattern;
+    /**
+     * Comma separated version qualifiers in release order, aliases joined by
+     * <code>=</code>. Defaults to
+     * <code>alpha=a,beta=b,milestone=m,rc=cr,snapshot,=final=ga=release,sp=sr</code>.
+     */
+    @Parameter
+    String versionQualifiers;
 
     @Override
     public void doExecute() throws Exception {
@@ -77,24 +84,23 @@ public class ReleaseVersionMojo extends AbstractJiraMojo {
      *
      * @return the new version to release.
      */
-    private VersionHolder calculateReleaseVersion() {
-        Project jiraProject = jiraClient.getRestClient().getProjectClient().getProject(jiraProjectKey).claim();
-        Iterable<Version> versions = jiraProject.getVersions();
-
-        List<Version> versionList = IteratorUtils.toList(versions.iterator());
-        Collections.sort(versionList, remoteVersionComparator);
+    private VersionHolder calculateReleaseVersion() throws IOException {
+        VersionIndex versionIndex = getVersionIndex();
 
         VersionHolder holder = null;
         VersionInput version;
-        for (Version remoteVersion : versions) {
+        if (!autoDiscoverLatestRelease) {
             // if we don't want auto discover -> we use provided releaseVersion
-            if (!autoDiscoverLatestRelease && !remoteVersion.isReleased() && remoteVersion.getName().equals(releaseVersion)) {
-                version = new VersionInput(jiraProjectKey, releaseVersion, null, new DateTime(), false, true);
+            Version remoteVersion = versionIndex.get(releaseVersion);
+            if (remoteVersion != null && !remoteVersion.isReleased()) {
+                version = new VersionInput(jiraProjectKey, remoteVersion.getName(), null, new DateTime(), false, true);
                 holder = new VersionHolder(version, remoteVersion.getSelf());
-                break;
-            } else {
-                // else get first unreleased version ??
-                if (autoDiscoverLatestRelease && !remoteVersion.isReleased()) {
+            }
+        } else {
+            // else get the latest unreleased version
+            VersionOrdering ordering = new VersionOrdering(versionPattern, versionQualifiers);
+            for (Version remoteVersion : versionIndex.getSortedVersions(ordering)) {
+                if (!remoteVersion.isReleased()) {
                     version = new VersionInput(jiraProjectKey, remoteVersion.getName(), null, new DateTime(), false, true);
                     holder = new VersionHolder(version, remoteVersion.getSelf());
                     break;
@@ -104,8 +110,9 @@ public class ReleaseVersionMojo extends AbstractJiraMojo {
         return holder;
     }
 
-    void markVersionAsReleased(VersionHolder versionHolder) throws MojoFailureException {
-        jiraClient.getRestClient().getVersionRestClient().updateVersion(versionHolder.getVersionURI(), versionHolder.getVersion()).claim();
+    void markVersionAsReleased(VersionHolder versionHolder) throws MojoFailureException, IOException {
+        Version releasedVersion = jiraClient.getRestClient().getVersionRestClient().updateVersion(versionHolder.getVersionURI(), versionHolder.getVersion()).claim();
+        getVersionIndex().put(releasedVersion);
         getLog().info("Version " + versionHolder.getVersion().getName() + " was released in JIRA.");
     }
 }
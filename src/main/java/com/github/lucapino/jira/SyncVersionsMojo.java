@@ -0,0 +1,222 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira;
+
+import com.atlassian.jira.rest.client.api.domain.Version;
+import com.atlassian.jira.rest.client.api.domain.input.VersionInput;
+import com.github.lucapino.jira.helpers.ParallelExecutor;
+import com.github.lucapino.jira.helpers.VersionIndex;
+import com.github.lucapino.jira.model.VersionResult;
+import com.github.lucapino.jira.model.VersionResult.Outcome;
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.joda.time.DateTime;
+
+/**
+ * Goal that brings the versions of a JIRA project to the state declared by
+ * the POM and by a versions file, creating and updating only the versions
+ * that differ.
+ * <p>
+ * The versions file has a line per version: <code>name[,released[,releaseDate[,archived]]]</code>,
+ * with the release date as <code>yyyy-MM-dd</code>. Empty fields are left
+ * as they are in JIRA; lines starting with <code>#</code> are comments.
+ * </p>
+ *
+ * @author Luca Tagliani
+ */
+@Mojo(name = "sync-versions", threadSafe = true)
+public class SyncVersionsMojo extends AbstractJiraMojo {
+
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+
+    /**
+     * Version of the project, which has to exist in JIRA.
+     */
+    @Parameter(defaultValue = "${project.version}")
+    String developmentVersion;
+    /**
+     * File declaring the versions of the JIRA project.
+     */
+    @Parameter(defaultValue = "${basedir}/src/jira/versions.txt")
+    File versionsFile;
+    /**
+     * Max number of versions created or updated at the same time.
+     */
+    @Parameter(defaultValue = "4")
+    int parallelism = 4;
+
+    /**
+     * All the versions are compared with the declared ones, so they are read
+     * in a single request: a run without changes costs one request.
+     */
+    @Override
+    protected VersionIndex loadVersionIndex(String projectKey) throws IOException {
+        return VersionIndex.loadAll(jiraClient, projectKey);
+    }
+
+    @Override
+    public void doExecute() throws Exception {
+        Map<String, DesiredVersion> desiredVersions = readDesiredVersions();
+        VersionIndex versionIndex = getVersionIndex();
+
+        List<Callable<VersionResult>> changes = new ArrayList<>();
+        int unchanged = 0;
+        for (DesiredVersion desired : desiredVersions.values()) {
+            Version remoteVersion = versionIndex.get(desired.name);
+            if (remoteVersion == null) {
+                VersionInput input = new VersionInput(jiraProjectKey, desired.name, null, desired.releaseDate,
+                        Boolean.TRUE.equals(desired.archived), Boolean.TRUE.equals(desired.released));
+                changes.add(new VersionChange(versionIndex, new VersionHolder(input, null)));
+            } else if (differs(desired, remoteVersion)) {
+                VersionInput input = new VersionInput(jiraProjectKey, remoteVersion.getName(), remoteVersion.getDescription(),
+                        desired.releaseDate != null ? desired.releaseDate : remoteVersion.getReleaseDate(),
+                        desired.archived != null ? desired.archived : remoteVersion.isArchived(),
+                        desired.released != null ? desired.released : remoteVersion.isReleased());
+                changes.add(new VersionChange(versionIndex, new VersionHolder(input, remoteVersion.getSelf())));
+            } else {
+                unchanged++;
+            }
+        }
+
+        Log log = getLog();
+        int failed = 0;
+        for (VersionResult result : ParallelExecutor.invokeAll(changes, parallelism)) {
+            if (result.getOutcome() == Outcome.FAILED) {
+                failed++;
+                log.error(String.format("%-20s %-10s %s", result.getVersionName(), result.getOutcome(), result.getMessage()));
+            } else {
+                log.info(String.format("%-20s %s", result.getVersionName(), result.getOutcome()));
+            }
+        }
+        log.info(String.format("Versions of %s: %d changed, %d unchanged, %d failed",
+                jiraProjectKey, changes.size() - failed, unchanged, failed));
+        if (failed > 0) {
+            throw new MojoFailureException(failed + " versions could not be synchronized");
+        }
+    }
+
+    /**
+     * Reads the desired state: the project version and the versions file.
+     */
+    private Map<String, DesiredVersion> readDesiredVersions() throws IOException, MojoFailureException {
+        Map<String, DesiredVersion> desiredVersions = new LinkedHashMap<>();
+        if (developmentVersion != null) {
+            DesiredVersion desired = new DesiredVersion(CreateNewVersionMojo.toJiraVersionName(developmentVersion));
+            desiredVersions.put(desired.name.toLowerCase(Locale.ENGLISH), desired);
+        }
+        if (versionsFile != null && versionsFile.isFile()) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+            int lineNumber = 0;
+            for (String line : FileUtils.readLines(versionsFile, "UTF-8")) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                DesiredVersion desired = new DesiredVersion(fields[0].trim());
+                try {
+                    desired.released = fields.length > 1 ? toBoolean(fields[1]) : null;
+                    desired.releaseDate = fields.length > 2 && !fields[2].trim().isEmpty()
+                            ? new DateTime(dateFormat.parse(fields[2].trim()).getTime()) : null;
+                    desired.archived = fields.length > 3 ? toBoolean(fields[3]) : null;
+                } catch (ParseException e) {
+                    throw fail("Invalid release date at line " + lineNumber + " of " + versionsFile, e);
+                }
+                // the file wins over the project version
+                desiredVersions.put(desired.name.toLowerCase(Locale.ENGLISH), desired);
+            }
+        }
+        return desiredVersions;
+    }
+
+    private static Boolean toBoolean(String value) {
+        return value.trim().isEmpty() ? null : Boolean.valueOf(value.trim());
+    }
+
+    private static boolean differs(DesiredVersion desired, Version remoteVersion) {
+        if (desired.released != null && desired.released != remoteVersion.isReleased()) {
+            return true;
+        }
+        if (desired.archived != null && desired.archived != remoteVersion.isArchived()) {
+            return true;
+        }
+        return desired.releaseDate != null && (remoteVersion.getReleaseDate() == null
+                || !desired.releaseDate.toString(DATE_FORMAT).equals(remoteVersion.getReleaseDate().toString(DATE_FORMAT)));
+    }
+
+    /**
+     * State of a version as declared in the POM or in the versions file.
+     * Fields set to <code>null</code> are not managed.
+     */
+    private static class DesiredVersion {
+
+        private final String name;
+        private Boolean released;
+        private DateTime releaseDate;
+        private Boolean archived;
+
+        DesiredVersion(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Creates a version, or updates it when it has an URI.
+     */
+    private class VersionChange implements Callable<VersionResult> {
+
+        private final VersionIndex versionIndex;
+        private final VersionHolder holder;
+
+        VersionChange(VersionIndex versionIndex, VersionHolder holder) {
+            this.versionIndex = versionIndex;
+            this.holder = holder;
+        }
+
+        @Override
+        public VersionResult call() {
+            String versionName = holder.getVersion().getName();
+            try {
+                getRequestThrottle().acquire();
+                if (holder.getVersionURI() == null) {
+                    versionIndex.put(jiraClient.getRestClient().getVersionRestClient().createVersion(holder.getVersion()).claim());
+                    return new VersionResult(jiraProjectKey, versionName, Outcome.CREATED, null);
+                }
+                versionIndex.put(jiraClient.getRestClient().getVersionRestClient().updateVersion(holder.getVersionURI(), holder.getVersion()).claim());
+                return new VersionResult(jiraProjectKey, versionName, Outcome.UPDATED, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new VersionResult(jiraProjectKey, versionName, Outcome.FAILED, "Interrupted");
+            } catch (RuntimeException e) {
+                return new VersionResult(jiraProjectKey, versionName, Outcome.FAILED, e.getMessage());
+            }
+        }
+    }
+}
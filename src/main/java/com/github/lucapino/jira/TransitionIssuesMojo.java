@@ -16,13 +16,31 @@
  */
 package com.github.lucapino.jira;
 
-import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.IssueRestClient;
+import com.atlassian.jira.rest.client.api.RestClientException;
 import com.atlassian.jira.rest.client.api.domain.Transition;
 import com.atlassian.jira.rest.client.api.domain.input.TransitionInput;
+import com.github.lucapino.jira.helpers.BuildCache;
 import com.github.lucapino.jira.helpers.IssuesDownloader;
+import com.github.lucapino.jira.helpers.IssuesSnapshot;
+import com.github.lucapino.jira.helpers.ParallelExecutor;
+import com.github.lucapino.jira.helpers.TransitionIdCache;
+import com.github.lucapino.jira.helpers.TransitionJournal;
+import com.github.lucapino.jira.helpers.WorkflowGraph;
+import com.github.lucapino.jira.helpers.WorkflowTransitionParser;
 import com.github.lucapino.jira.model.JiraIssue;
-import java.rmi.RemoteException;
+import com.github.lucapino.jira.model.TransitionResult;
+import com.github.lucapino.jira.model.TransitionResult.Outcome;
+import com.github.lucapino.jira.model.WorkflowTransition;
+import io.atlassian.util.concurrent.Promise;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.apache.commons.io.FileUtils;
+import org.codehaus.jettison.json.JSONException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -33,7 +51,7 @@ import org.apache.maven.plugins.annotations.Parameter;
  *
  * @author Luca Tagliani
  */
-@Mojo(name = "transition-issues")
+@Mojo(name = "transition-issues", threadSafe = true)
 public class TransitionIssuesMojo extends AbstractJiraMojo {
 
     /**
@@ -55,8 +73,60 @@ public class TransitionIssuesMojo extends AbstractJiraMojo {
     /**
      * Transition to take
      */
-    @Parameter(required = true)
+    @Parameter
     String transition;
+    /**
+     * Status the issues have to reach, taking as many transitions as needed.
+     * Used instead of <code>transition</code>: the workflow is learned from the
+     * transitions JIRA returns and each issue follows the shortest path.
+     */
+    @Parameter
+    String targetStatus;
+    /**
+     * Max number of issues transitioned at the same time.
+     */
+    @Parameter(defaultValue = "4")
+    int parallelism = 4;
+    /**
+     * How transition ids are looked up. <code>cache</code> asks JIRA for the
+     * transitions once per project, issue type and status.
+     * <code>expand</code> gets the transitions of every issue within the
+     * search itself, so the goal costs one paged search plus one request per
+     * issue.
+     */
+    @Parameter(defaultValue = "cache")
+    String transitionLookup = "cache";
+    /**
+     * If <code>true</code>, only writes the transition plan: the transition
+     * each issue would take and the requests expected to take it.
+     */
+    @Parameter(property = "jira.dryRun", defaultValue = "false")
+    boolean dryRun;
+    /**
+     * File the transition plan is written to when running in dry run mode.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/jira/transition-plan.txt")
+    File transitionPlanFile;
+    /**
+     * Journal of the transitions taken. If a run stops halfway, the next run
+     * of the same transition on the same query skips the issues already
+     * transitioned, and checks the status of the issues whose transition was
+     * sent when the run stopped. The journal is removed once all the issues
+     * succeeded.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/jira/transition-journal.log")
+    File transitionJournalFile;
+
+    /**
+     * Max number of transitions taken by a single issue to reach the target
+     * status.
+     */
+    private static final int MAX_HOPS = 10;
+
+    private final TransitionIdCache transitionIdCache = new TransitionIdCache();
+    private WorkflowGraph workflowGraph;
+    private String jql;
+    private String operation;
 
     @Override
     public void doExecute() throws Exception {
@@ -65,11 +135,15 @@ public class TransitionIssuesMojo extends AbstractJiraMojo {
         if (runOnlyAtExecutionRoot && !isThisTheExecutionRoot()) {
             log.info("Skipping the announcement mail in this project because it's not the Execution Root");
         } else {
-            if (transition == null) {
-                log.info("Transition not specified. Nothing to do");
+            if (transition == null && targetStatus == null) {
+                log.info("Neither transition nor target status specified. Nothing to do");
+                return;
             }
+            workflowGraph = BuildCache.getOrCreate(mavenSession, "workflow-graph:" + jiraURL, new WorkflowGraph());
             IssuesDownloader issuesDownloader = new IssuesDownloader();
             configureIssueDownloader(issuesDownloader);
+            jql = issuesDownloader.getJql();
+            operation = IssuesSnapshot.fingerprint(jiraURL, jql, transition, targetStatus);
             List<JiraIssue> issues = issuesDownloader.getIssueList();
             transitionIssues(issues, transition);
         }
@@ -83,26 +157,363 @@ public class TransitionIssuesMojo extends AbstractJiraMojo {
         this.jqlTemplate = jqlTemplate;
     }
 
-    private void transitionIssues(List<JiraIssue> issues, String transition) throws RemoteException, MojoFailureException {
+    private void transitionIssues(List<JiraIssue> issues, String transition) throws Exception {
+        TransitionJournal journal = new TransitionJournal(transitionJournalFile, operation);
+        if (dryRun) {
+            if (targetStatus != null) {
+                writePathPlan(issues, journal);
+            } else {
+                writePlan(issues, journal);
+            }
+            return;
+        }
+        List<Callable<TransitionResult>> tasks = new ArrayList<>(issues.size());
+        for (JiraIssue issue : issues) {
+            if (!journal.isCompleted(issue.getKey())) {
+                if (targetStatus != null) {
+                    tasks.add(new TargetStatusTask(issue, journal));
+                } else {
+                    tasks.add(new TransitionTask(issue, transition, journal));
+                }
+            }
+        }
+        if (journal.getCompletedCount() > 0) {
+            getLog().info("Resuming transition: " + journal.getCompletedCount() + " issues already transitioned by a previous run");
+        }
+        if (journal.getInDoubtCount() > 0) {
+            getLog().info("Resuming transition: " + journal.getInDoubtCount() + " issues in doubt are checked against their current status");
+        }
+        journal.start();
+        int failed;
+        try {
+            List<TransitionResult> results = ParallelExecutor.invokeAll(tasks, parallelism);
+            failed = logSummary(results);
+            if (failed == 0) {
+                journal.delete();
+            }
+        } finally {
+            journal.close();
+        }
+        if (failed > 0) {
+            // the journal is kept, so the next run only retries the failed issues
+            throw new MojoFailureException(failed + " transitions failed, run the goal again to resume");
+        }
+    }
+
+    /**
+     * Writes the transition each issue would take, without transitioning
+     * anything.
+     */
+    private void writePlan(List<JiraIssue> issues, TransitionJournal journal) throws IOException, InterruptedException {
+        int expectedRequests = 0;
+        StringBuilder plan = new StringBuilder();
+        plan.append("# Transition '").append(transition).append("' of issues matching: ").append(jql).append('\n');
+        plan.append("# issue\ttransitionId\trequests\n");
+        for (JiraIssue issue : issues) {
+            String transitionId;
+            int requests;
+            if (journal.isCompleted(issue.getKey())) {
+                transitionId = "done";
+                requests = 0;
+            } else {
+                Map<String, Integer> cached = transitionIdCache.get(issue);
+                boolean lookup = issue.getRemoteIssue().getTransitions() == null && (cached == null || !cached.containsKey(transition));
+                Integer id = resolveTransitionId(issue);
+                transitionId = id == null ? "n/a" : id.toString();
+                requests = (lookup ? 1 : 0) + (id == null ? 0 : 1);
+            }
+            expectedRequests += requests;
+            plan.append(issue.getKey()).append('\t').append(transitionId).append('\t').append(requests).append('\n');
+        }
+        plan.append("# ").append(issues.size()).append(" issues, ").append(expectedRequests).append(" requests expected\n");
+        FileUtils.writeStringToFile(transitionPlanFile, plan.toString(), "UTF-8");
+        getLog().info("Dry run: transition plan written to " + transitionPlanFile + " (" + expectedRequests + " requests expected)");
+    }
+
+    /**
+     * Writes the path each issue would follow to the target status, without
+     * transitioning anything. Only the transitions from the current status
+     * of the issues can be learned without moving them, so unexplored steps
+     * are marked with <code>?</code>.
+     */
+    private void writePathPlan(List<JiraIssue> issues, TransitionJournal journal) throws IOException, InterruptedException {
+        int expectedRequests = 0;
+        StringBuilder plan = new StringBuilder();
+        plan.append("# Path to status '").append(targetStatus).append("' of issues matching: ").append(jql).append('\n');
+        plan.append("# issue\ttransitionIds\trequests\n");
         for (JiraIssue issue : issues) {
-            Issue remoteIssue = issue.getRemoteIssue();
-            Iterable<Transition> transitions = jiraClient.getRestClient().getIssueClient().getTransitions(remoteIssue).claim();
-            if (transitions == null || !transitions.iterator().hasNext()) {
-                getLog().warn("No transitions found for issue " + issue.getKey());
+            String path;
+            int requests = 0;
+            if (journal.isCompleted(issue.getKey())) {
+                path = "done";
+            } else if (issue.getStatus().equalsIgnoreCase(targetStatus)) {
+                path = "-";
             } else {
-                boolean found = false;
-                for (Transition remoteTransition : transitions) {
-                    if (remoteTransition.getName().equals(transition)) {
-                        TransitionInput transitionToTake = new TransitionInput(remoteTransition.getId());
-                        jiraClient.getRestClient().getIssueClient().transition(remoteIssue, transitionToTake).claim();
-                        found = true;
-                        break;
+                if (!isExplored(issue, issue.getStatus())) {
+                    requests++;
+                }
+                List<WorkflowTransition> hops = findPath(issue, issue.getStatus());
+                if (hops == null || hops.isEmpty()) {
+                    path = "n/a";
+                } else {
+                    StringBuilder ids = new StringBuilder();
+                    for (WorkflowTransition hop : hops) {
+                        if (ids.length() > 0) {
+                            ids.append('>');
+                        }
+                        ids.append(hop.getId());
+                    }
+                    WorkflowTransition last = hops.get(hops.size() - 1);
+                    if (!last.getTargetStatus().equalsIgnoreCase(targetStatus)) {
+                        ids.append(">?");
                     }
+                    path = ids.toString();
+                    requests += hops.size();
                 }
-                if (!found) {
-                    getLog().warn("No transition with name '" + transition + "' found for issue " + issue.getKey());
+            }
+            expectedRequests += requests;
+            plan.append(issue.getKey()).append('\t').append(path).append('\t').append(requests).append('\n');
+        }
+        plan.append("# ").append(issues.size()).append(" issues, at least ").append(expectedRequests).append(" requests expected\n");
+        FileUtils.writeStringToFile(transitionPlanFile, plan.toString(), "UTF-8");
+        getLog().info("Dry run: transition plan written to " + transitionPlanFile + " (at least " + expectedRequests + " requests expected)");
+    }
+
+    private boolean isExplored(JiraIssue issue, String status) {
+        return workflowGraph.getTransitions(issue.getProjectKey(), issue.getType(), status) != null;
+    }
+
+    /**
+     * Returns the shortest known path from the status to the target status,
+     * learning the transitions of the status from the issue if needed.
+     */
+    private List<WorkflowTransition> findPath(JiraIssue issue, String status) throws IOException, InterruptedException {
+        if (!isExplored(issue, status)) {
+            List<WorkflowTransition> expanded = issue.getRemoteIssue().getTransitions();
+            if (expanded != null && status.equals(issue.getStatus())) {
+                // transitions came with the search
+                workflowGraph.learn(issue.getProjectKey(), issue.getType(), status, expanded);
+            } else {
+                learnTransitions(issue, status);
+            }
+        }
+        return workflowGraph.findPath(issue.getProjectKey(), issue.getType(), status, targetStatus);
+    }
+
+    /**
+     * Asks JIRA the transitions available to the issue, which is in the given
+     * status, and records them in the workflow graph.
+     */
+    private void learnTransitions(JiraIssue issue, String status) throws IOException, InterruptedException {
+        getRequestThrottle().acquire();
+        try {
+            List<WorkflowTransition> transitions = WorkflowTransitionParser.parse(
+                    jiraClient.getJson(issue.getRemoteIssue().getTransitionsUri()).getJSONArray("transitions"));
+            workflowGraph.learn(issue.getProjectKey(), issue.getType(), status, transitions);
+        } catch (JSONException e) {
+            throw new IOException("Invalid transitions of issue " + issue.getKey(), e);
+        }
+    }
+
+    /**
+     * Returns the id of the transition for the issue, looking it up in JIRA
+     * if it did not come with the search and is not cached.
+     */
+    private Integer resolveTransitionId(JiraIssue issue) throws InterruptedException {
+        List<WorkflowTransition> expanded = issue.getRemoteIssue().getTransitions();
+        if (expanded != null) {
+            // transitions came with the search
+            for (WorkflowTransition workflowTransition : expanded) {
+                if (workflowTransition.getName().equals(transition)) {
+                    return workflowTransition.getId();
                 }
             }
+            return null;
+        }
+        Map<String, Integer> transitions = transitionIdCache.get(issue);
+        if (transitions == null || !transitions.containsKey(transition)) {
+            // cache miss, or a condition hides the transition on the cached step
+            transitions = lookupTransitions(issue);
+        }
+        return transitions.get(transition);
+    }
+
+    /**
+     * Asks JIRA the transitions of the issue and caches their ids. The
+     * promise is claimed on the worker thread rather than chained to the
+     * transition: the transition still needs a throttle permit and a journal
+     * entry before it is sent, and neither may block the client threads.
+     */
+    private Map<String, Integer> lookupTransitions(JiraIssue issue) throws InterruptedException {
+        getRequestThrottle().acquire();
+        IssueRestClient issueClient = jiraClient.getRestClient().getIssueClient();
+        Promise<Iterable<Transition>> transitionsPromise = issueClient.getTransitions(issue.getRemoteIssue().getTransitionsUri());
+        return transitionIdCache.put(issue, transitionsPromise.claim());
+    }
+
+    private void doTransition(JiraIssue issue, int transitionId) throws InterruptedException {
+        getRequestThrottle().acquire();
+        IssueRestClient issueClient = jiraClient.getRestClient().getIssueClient();
+        Promise<Void> transitionPromise = issueClient.transition(issue.getRemoteIssue().getTransitionsUri(), new TransitionInput(transitionId));
+        transitionPromise.claim();
+    }
+
+    /**
+     * Logs the outcome of the transitions.
+     *
+     * @return the number of failed transitions
+     */
+    private int logSummary(List<TransitionResult> results) {
+        Log log = getLog();
+        int transitioned = 0;
+        int notAvailable = 0;
+        int failed = 0;
+        int transitions = 0;
+        for (TransitionResult result : results) {
+            transitions += result.getTransitions();
+            switch (result.getOutcome()) {
+                case TRANSITIONED:
+                    transitioned++;
+                    if (result.getMessage() != null) {
+                        log.info(result.getKey() + ": " + result.getMessage());
+                    }
+                    break;
+                case NOT_AVAILABLE:
+                    notAvailable++;
+                    log.warn(result.getKey() + ": " + result.getMessage());
+                    break;
+                default:
+                    failed++;
+                    log.error(result.getKey() + ": " + result.getMessage());
+                    break;
+            }
+        }
+        if (targetStatus != null) {
+            log.info(String.format("Status '%s': %d reached, %d without path, %d failed (%d issues, %d transitions taken)",
+                    targetStatus, transitioned, notAvailable, failed, results.size(), transitions));
+        } else {
+            log.info(String.format("Transition '%s': %d transitioned, %d without transition, %d failed (%d issues)",
+                    transition, transitioned, notAvailable, failed, results.size()));
+        }
+        return failed;
+    }
+
+    /**
+     * Moves a single issue to the target status, one transition at a time.
+     */
+    private class TargetStatusTask implements Callable<TransitionResult> {
+
+        private final JiraIssue issue;
+        private final TransitionJournal journal;
+
+        TargetStatusTask(JiraIssue issue, TransitionJournal journal) {
+            this.issue = issue;
+            this.journal = journal;
+        }
+
+        @Override
+        public TransitionResult call() {
+            int hops = 0;
+            try {
+                // searched by this run: an issue in doubt goes on from the
+                // status the previous run left it in
+                String status = issue.getStatus();
+                int lastTransitionId = 0;
+                for (; !status.equalsIgnoreCase(targetStatus); hops++) {
+                    if (hops == MAX_HOPS) {
+                        return new TransitionResult(issue.getKey(), Outcome.FAILED, "Status '" + targetStatus + "' not reached after " + MAX_HOPS + " transitions", hops);
+                    }
+                    WorkflowTransition hop = nextHop(status);
+                    if (hop == null) {
+                        return new TransitionResult(issue.getKey(), Outcome.NOT_AVAILABLE, "No path from status '" + status + "' to '" + targetStatus + "' found", hops);
+                    }
+                    try {
+                        journal.started(issue.getKey(), hop.getId(), status);
+                        doTransition(issue, hop.getId());
+                    } catch (RestClientException e) {
+                        // a condition may hide the learned transition for this issue
+                        learnTransitions(issue, status);
+                        hop = nextHop(status);
+                        if (hop == null) {
+                            return new TransitionResult(issue.getKey(), Outcome.NOT_AVAILABLE, "No path from status '" + status + "' to '" + targetStatus + "' found", hops);
+                        }
+                        journal.started(issue.getKey(), hop.getId(), status);
+                        doTransition(issue, hop.getId());
+                    }
+                    lastTransitionId = hop.getId();
+                    status = hop.getTargetStatus();
+                }
+                journal.completed(issue.getKey(), lastTransitionId);
+                return new TransitionResult(issue.getKey(), Outcome.TRANSITIONED, null, hops);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new TransitionResult(issue.getKey(), Outcome.FAILED, "Interrupted", hops);
+            } catch (IOException | RuntimeException e) {
+                return new TransitionResult(issue.getKey(), Outcome.FAILED, e.getMessage(), hops);
+            }
+        }
+
+        private WorkflowTransition nextHop(String status) throws IOException, InterruptedException {
+            List<WorkflowTransition> path = findPath(issue, status);
+            return path == null || path.isEmpty() ? null : path.get(0);
+        }
+    }
+
+    /**
+     * Applies the transition to a single issue.
+     */
+    private class TransitionTask implements Callable<TransitionResult> {
+
+        private final JiraIssue issue;
+        private final String transition;
+        private final TransitionJournal journal;
+
+        TransitionTask(JiraIssue issue, String transition, TransitionJournal journal) {
+            this.issue = issue;
+            this.transition = transition;
+            this.journal = journal;
+        }
+
+        @Override
+        public TransitionResult call() {
+            try {
+                String inDoubtStatus = journal.getInDoubtStatus(issue.getKey());
+                if (inDoubtStatus != null && !inDoubtStatus.equalsIgnoreCase(issue.getStatus())) {
+                    // the issues were searched by this run, so the status is
+                    // current: the issue left the status the transition in
+                    // doubt was sent from, JIRA took it
+                    return new TransitionResult(issue.getKey(), Outcome.TRANSITIONED, "Transitioned by a previous run");
+                }
+                Map<String, Integer> cachedIds = transitionIdCache.get(issue);
+                boolean cached = issue.getRemoteIssue().getTransitions() == null && cachedIds != null && cachedIds.containsKey(transition);
+                Integer transitionId = resolveTransitionId(issue);
+                if (transitionId == null) {
+                    return new TransitionResult(issue.getKey(), Outcome.NOT_AVAILABLE, "No transition with name '" + transition + "' found");
+                }
+                try {
+                    journal.started(issue.getKey(), transitionId, issue.getStatus());
+                    doTransition(issue, transitionId);
+                } catch (RestClientException e) {
+                    if (!cached) {
+                        throw e;
+                    }
+                    // the cached id was rejected: the workflow may have changed
+                    transitionIdCache.invalidate(issue);
+                    transitionId = resolveTransitionId(issue);
+                    if (transitionId == null) {
+                        return new TransitionResult(issue.getKey(), Outcome.NOT_AVAILABLE, "No transition with name '" + transition + "' found");
+                    }
+                    journal.started(issue.getKey(), transitionId, issue.getStatus());
+                    doTransition(issue, transitionId);
+                }
+                journal.completed(issue.getKey(), transitionId);
+                return new TransitionResult(issue.getKey(), Outcome.TRANSITIONED, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new TransitionResult(issue.getKey(), Outcome.FAILED, "Interrupted");
+            } catch (IOException | RuntimeException e) {
+                return new TransitionResult(issue.getKey(), Outcome.FAILED, e.getMessage());
+            }
         }
     }
 
@@ -115,5 +526,8 @@ public class TransitionIssuesMojo extends AbstractJiraMojo {
         issueDownloader.setReleaseVersion(releaseVersion);
         issueDownloader.setJiraProjectKey(jiraProjectKey);
         issueDownloader.setClient(jiraClient);
+        if ("expand".equals(transitionLookup)) {
+            issueDownloader.setExpand("transitions");
+        }
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Holds objects shared by all the goals and modules of the current build.
+ * Values live in the repository session data, so they are dropped with the
+ * build.
+ *
+ * @author Luca Tagliani
+ */
+public class BuildCache {
+
+    private BuildCache() {
+    }
+
+    /**
+     * Returns the value cached for the key.
+     *
+     * @param <T> the value type
+     * @param session the Maven session, may be <code>null</code> outside of a
+     * build
+     * @param key the cache key
+     * @return the cached value, or <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(MavenSession session, String key) {
+        if (session == null || session.getRepositorySession() == null) {
+            return null;
+        }
+        return (T) session.getRepositorySession().getData().get(BuildCache.class.getName() + ':' + key);
+    }
+
+    /**
+     * Returns the value cached for the key, caching the given one if there is
+     * none yet.
+     *
+     * @param <T> the value type
+     * @param session the Maven session, may be <code>null</code> outside of a
+     * build
+     * @param key the cache key
+     * @param newValue the value to cache if the key is not cached yet
+     * @return the cached value
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T getOrCreate(MavenSession session, String key, T newValue) {
+        if (session == null || session.getRepositorySession() == null) {
+            return newValue;
+        }
+        SessionData data = session.getRepositorySession().getData();
+        String dataKey = BuildCache.class.getName() + ':' + key;
+        Object value = data.get(dataKey);
+        if (value == null && !data.set(dataKey, null, newValue)) {
+            // another thread cached it meanwhile
+            value = data.get(dataKey);
+        }
+        return value == null ? newValue : (T) value;
+    }
+
+    /**
+     * Removes the value cached for the key.
+     *
+     * @param session the Maven session, may be <code>null</code> outside of a
+     * build
+     * @param key the cache key
+     */
+    public static void remove(MavenSession session, String key) {
+        if (session != null && session.getRepositorySession() != null) {
+            session.getRepositorySession().getData().set(BuildCache.class.getName() + ':' + key, null);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.JiraIssue;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the issues of a report by status, type, priority, assignee and
+ * component, and by month of creation and resolution, in a single pass over
+ * the issues.
+ * <p>
+ * Values are turned into dictionary codes the first time they are seen, so
+ * counting an issue only increments <code>int</code> counters. An instance
+ * must not be shared between threads.
+ * </p>
+ *
+ * @author Luca Tagliani
+ */
+public class IssueSummary {
+
+    private final Counter statuses = new Counter("report.issues.label.status");
+    private final Counter types = new Counter("report.issues.label.type");
+    private final Counter priorities = new Counter("report.issues.label.priority");
+    private final Counter assignees = new Counter("report.issues.label.assignee");
+    private final Counter components = new Counter("report.issues.label.component");
+    private final Histogram created = new Histogram("report.issues.label.created");
+    private final Histogram resolved = new Histogram("report.issues.label.resolved");
+    private final Calendar calendar = Calendar.getInstance();
+    private int issues;
+
+    /**
+     * Counts an issue.
+     *
+     * @param issue the issue
+     */
+    public void add(JiraIssue issue) {
+        issues++;
+        statuses.add(issue.getStatus());
+        types.add(issue.getType());
+        priorities.add(issue.getPriority());
+        assignees.add(issue.getAssignee());
+        List<String> issueComponents = issue.getComponents();
+        if (issueComponents == null || issueComponents.isEmpty()) {
+            components.add(null);
+        } else {
+            for (int i = 0; i < issueComponents.size(); i++) {
+                components.add(issueComponents.get(i));
+            }
+        }
+        created.add(toMonth(issue.getCreated()));
+        resolved.add(toMonth(issue.getResolved()));
+    }
+
+    /**
+     * @return the number of counted issues
+     */
+    public int getIssueCount() {
+        return issues;
+    }
+
+    /**
+     * @return the counters, in the order they are reported
+     */
+    Counter[] getCounters() {
+        return new Counter[]{statuses, types, priorities, assignees, components};
+    }
+
+    /**
+     * @return the histograms, in the order they are reported
+     */
+    Histogram[] getHistograms() {
+        return new Histogram[]{created, resolved};
+    }
+
+    /**
+     * @return the months since year 0 of the date, -1 for no date
+     */
+    private int toMonth(Date date) {
+        if (date == null) {
+            return -1;
+        }
+        calendar.setTime(date);
+        return calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+    }
+
+    /**
+     * Issues by value, <code>null</code> included.
+     */
+    static final class Counter {
+
+        private final String labelKey;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[16];
+        private int[] counts = new int[16];
+        private int size;
+        private int noValueCount;
+
+        Counter(String labelKey) {
+            this.labelKey = labelKey;
+        }
+
+        void add(String value) {
+            if (value == null) {
+                noValueCount++;
+                return;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                    counts = Arrays.copyOf(counts, size * 2);
+                }
+                code = size++;
+                codes.put(value, code);
+                values[code] = value;
+            }
+            counts[code]++;
+        }
+
+        String getLabelKey() {
+            return labelKey;
+        }
+
+        /**
+         * @return the codes of the values, most frequent first
+         */
+        Integer[] getCodesByCount() {
+            Integer[] sorted = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = i;
+            }
+            Arrays.sort(sorted, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer code1, Integer code2) {
+                    int result = Integer.compare(counts[code2], counts[code1]);
+                    return result != 0 ? result : values[code1].compareTo(values[code2]);
+                }
+            });
+            return sorted;
+        }
+
+        String getValue(int code) {
+            return values[code];
+        }
+
+        int getCount(int code) {
+            return counts[code];
+        }
+
+        int getNoValueCount() {
+            return noValueCount;
+        }
+    }
+
+    /**
+     * Issues by month, as months since year 0.
+     */
+    static final class Histogram {
+
+        private final String labelKey;
+        private int firstMonth = -1;
+        private int[] counts = new int[0];
+        private int noValueCount;
+
+        Histogram(String labelKey) {
+            this.labelKey = labelKey;
+        }
+
+        void add(int month) {
+            if (month < 0) {
+                noValueCount++;
+                return;
+            }
+            if (firstMonth < 0) {
+                firstMonth = month;
+                counts = new int[12];
+            } else if (month < firstMonth) {
+                int[] grown = new int[counts.length + firstMonth - month];
+                System.arraycopy(counts, 0, grown, firstMonth - month, counts.length);
+                counts = grown;
+                firstMonth = month;
+            } else if (month - firstMonth >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(counts.length * 2, month - firstMonth + 1));
+            }
+            counts[month - firstMonth]++;
+        }
+
+        String getLabelKey() {
+            return labelKey;
+        }
+
+        /**
+         * @return the first month with issues, -1 if there is none
+         */
+        int getFirstMonth() {
+            return firstMonth;
+        }
+
+        /**
+         * @return the last month with issues, -1 if there is none
+         */
+        int getLastMonth() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return firstMonth + i;
+                }
+            }
+            return -1;
+        }
+
+        int getCount(int month) {
+            return counts[month - firstMonth];
+        }
+
+        int getNoValueCount() {
+            return noValueCount;
+        }
+    }
+}
@@ -19,17 +19,29 @@ import com.atlassian.jira.rest.client.api.domain.BasicComponent;
 import com.atlassian.jira.rest.client.api.domain.BasicPriority;
 import com.atlassian.jira.rest.client.api.domain.Comment;
 import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.IssueField;
 import com.atlassian.jira.rest.client.api.domain.Resolution;
 import com.atlassian.jira.rest.client.api.domain.SearchResult;
 import com.atlassian.jira.rest.client.api.domain.User;
 import com.atlassian.jira.rest.client.api.domain.Version;
+import com.atlassian.jira.rest.client.internal.json.IssueJsonParser;
+import com.atlassian.jira.rest.client.internal.json.JsonParseUtil;
 import com.github.lucapino.jira.model.JiraIssue;
+import com.github.lucapino.jira.model.RemoteIssueHandle;
 import static java.text.MessageFormat.format;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.lang3.text.WordUtils;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
 
 /**
  *
@@ -46,6 +58,10 @@ public class IssuesDownloader {
      * The maximum number of entries to show.
      */
     protected int maxIssues;
+    /**
+     * The number of issues requested to JIRA for each page of the search.
+     */
+    protected int pageSize = 100;
     /**
      * The username to log into JIRA.
      */
@@ -70,36 +86,283 @@ public class IssuesDownloader {
      * The JIRA Rest client.
      */
     protected JiraClient client;
+    /**
+     * The binary snapshot of the downloaded issues. If <code>null</code> no
+     * snapshot is read or written.
+     */
+    protected File snapshotFile;
+    /**
+     * The maximum age, in seconds, of a snapshot to be reused.
+     */
+    protected int snapshotMaxAge;
+    /**
+     * Comma separated entities to expand in the search, e.g.
+     * <code>transitions</code>. If <code>null</code> nothing is expanded.
+     */
+    protected String expand;
+    /**
+     * Digest of the issues of the query, from {@link #getIssuesDigest()}. When
+     * set, only a snapshot of the same issues is reused.
+     */
+    protected String issuesDigest;
+    /**
+     * The JIRA version name used as is in the query. If <code>null</code> it
+     * is derived from the release version.
+     */
+    protected String jiraVersion;
+    /**
+     * Pool of the strings of the downloaded issues, shared by downloaders
+     * running concurrently so that the values they have in common are held
+     * once. If <code>null</code> strings are not pooled.
+     */
+    protected ConcurrentMap<String, String> stringPool;
 
     public List<JiraIssue> getIssueList() throws MojoFailureException {
-        List<JiraIssue> issues = new ArrayList<>();
-        // strip out -SNAPSHOT from releaseVersion
-        releaseVersion = WordUtils.capitalize(releaseVersion.replace("-SNAPSHOT", "").replace("-", " "));
-        String jql = format(jqlTemplate, jiraProjectKey, releaseVersion);
+        final List<JiraIssue> issues = new ArrayList<>();
+        String jql = getJql();
         if (log.isInfoEnabled()) {
             log.info("JQL: " + jql);
         }
+        String fingerprint = getSnapshotFingerprint();
+        List<JiraIssue> snapshotIssues = readSnapshot(jql, fingerprint);
+        if (snapshotIssues != null) {
+            return snapshotIssues;
+        }
 
         try {
-            SearchResult remoteIssues = client.getRestClient().getSearchClient().searchJql(jql, maxIssues, 0, null).claim();
-            if (log.isInfoEnabled()) {
-                log.info("Issues: " + remoteIssues.getTotal());
+            download(jql, new PageHandler() {
+                @Override
+                public void handlePage(List<JiraIssue> page) {
+                    issues.addAll(page);
+                }
+            });
+            writeSnapshot(jql, fingerprint, issues);
+        } catch (MojoFailureException ex) {
+            log.warn("No issues found.");
+        }
+        return issues;
+    }
+
+    /**
+     * Downloads the issues a page at a time, without holding them all in
+     * memory. The issues are read from a fresh snapshot when there is one,
+     * but no snapshot is written since the issues are not kept.
+     *
+     * @param handler the handler receiving the pages of issues
+     * @throws MojoFailureException if the search fails or the handler fails
+     */
+    public void downloadIssues(PageHandler handler) throws MojoFailureException {
+        String jql = getJql();
+        if (log.isInfoEnabled()) {
+            log.info("JQL: " + jql);
+        }
+        String fingerprint = getSnapshotFingerprint();
+        List<JiraIssue> snapshotIssues = readSnapshot(jql, fingerprint);
+        if (snapshotIssues != null) {
+            for (int from = 0; from < snapshotIssues.size(); from += pageSize) {
+                handler.handlePage(snapshotIssues.subList(from, Math.min(from + pageSize, snapshotIssues.size())));
+            }
+            return;
+        }
+        download(jql, handler);
+    }
+
+    private void download(String jql, PageHandler handler) throws MojoFailureException {
+        int total;
+        int read;
+        int startAt = 0;
+        do {
+            int pageMaxResults = Math.min(pageSize, maxIssues - startAt);
+            List<JiraIssue> page = new ArrayList<>(pageMaxResults);
+            if (expand == null) {
+                total = searchPage(jql, startAt, pageMaxResults, page);
+            } else {
+                total = searchExpandedPage(jql, startAt, pageMaxResults, page);
+            }
+            read = page.size();
+            if (startAt == 0 && log.isInfoEnabled()) {
+                log.info("Issues: " + total);
             }
-            for (Issue remoteIssue : remoteIssues.getIssues()) {
+            startAt += read;
+            if (read > 0) {
+                handler.handlePage(page);
+            }
+        } while (read > 0 && startAt < Math.min(total, maxIssues));
+    }
+
+    private String getSnapshotFingerprint() {
+        if (issuesDigest == null) {
+            return IssuesSnapshot.fingerprint(client.getJiraURL(), jiraUser, maxIssues, expand);
+        }
+        return IssuesSnapshot.fingerprint(client.getJiraURL(), jiraUser, maxIssues, expand, issuesDigest);
+    }
+
+    private List<JiraIssue> readSnapshot(String jql, String fingerprint) {
+        if (snapshotFile != null && snapshotMaxAge > 0) {
+            try {
+                List<JiraIssue> snapshotIssues = IssuesSnapshot.read(snapshotFile, jql, fingerprint, snapshotMaxAge * 1000L);
+                if (snapshotIssues != null && log.isInfoEnabled()) {
+                    log.info("Issues: " + snapshotIssues.size() + " (from snapshot " + snapshotFile + ")");
+                }
+                return snapshotIssues;
+            } catch (IOException ex) {
+                log.warn("Unable to read issues snapshot, downloading issues again", ex);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Digests the keys and update dates of the issues of the query, through a
+     * search returning only the <code>updated</code> field, to tell cheaply
+     * whether the issues changed since they were last downloaded.
+     *
+     * @return an hex encoded digest of the issues
+     * @throws MojoFailureException if the search fails
+     */
+    public String getIssuesDigest() throws MojoFailureException {
+        String jql = getJql();
+        List<String> issueVersions = new ArrayList<>();
+        int total;
+        int read;
+        try {
+            do {
+                Map<String, String> query = new LinkedHashMap<>();
+                query.put("jql", jql);
+                query.put("startAt", String.valueOf(issueVersions.size()));
+                query.put("maxResults", String.valueOf(Math.min(pageSize, maxIssues - issueVersions.size())));
+                query.put("fields", "updated");
+                JSONObject result = client.getJson(client.getRestUri("search", query));
+                JSONArray remoteIssues = result.getJSONArray("issues");
+                for (int i = 0; i < remoteIssues.length(); i++) {
+                    JSONObject remoteIssueJson = remoteIssues.getJSONObject(i);
+                    JSONObject fields = remoteIssueJson.optJSONObject("fields");
+                    issueVersions.add(remoteIssueJson.getString("key") + '@' + (fields == null ? null : fields.optString("updated")));
+                }
+                total = result.getInt("total");
+                read = remoteIssues.length();
+            } while (read > 0 && issueVersions.size() < Math.min(total, maxIssues));
+        } catch (IOException | JSONException ex) {
+            throw fail("Unable to search issues", ex);
+        }
+        return IssuesSnapshot.fingerprint(issueVersions.toArray());
+    }
+
+    /**
+     * @return the JQL query run by {@link #getIssueList()}
+     */
+    public String getJql() {
+        return format(jqlTemplate, jiraProjectKey, getJiraVersion());
+    }
+
+    /**
+     * @return the JIRA version name of the query
+     */
+    public String getJiraVersion() {
+        if (jiraVersion != null) {
+            return jiraVersion;
+        }
+        // strip out -SNAPSHOT from releaseVersion
+        return WordUtils.capitalize(releaseVersion.replace("-SNAPSHOT", "").replace("-", " "));
+    }
+
+    private int searchPage(String jql, int startAt, int pageMaxResults, List<JiraIssue> issues) throws MojoFailureException {
+        SearchResult remoteIssues = client.getRestClient().getSearchClient().searchJql(jql, pageMaxResults, startAt, null).claim();
+        for (Issue remoteIssue : remoteIssues.getIssues()) {
+            JiraIssue jiraIssue = new JiraIssue();
+            fillIssue(jiraIssue, remoteIssue);
+            issues.add(jiraIssue);
+        }
+        return remoteIssues.getTotal();
+    }
+
+    /**
+     * Runs a search page through the raw REST resource, since JRJC does not
+     * send the <code>expand</code> parameter.
+     */
+    private int searchExpandedPage(String jql, int startAt, int pageMaxResults, List<JiraIssue> issues) throws MojoFailureException {
+        Map<String, String> query = new LinkedHashMap<>();
+        query.put("jql", jql);
+        query.put("startAt", String.valueOf(startAt));
+        query.put("maxResults", String.valueOf(pageMaxResults));
+        query.put("expand", expand);
+        try {
+            JSONObject result = client.getJson(client.getRestUri("search", query));
+            JSONArray remoteIssues = result.getJSONArray("issues");
+            IssueJsonParser issueParser = new IssueJsonParser();
+            for (int i = 0; i < remoteIssues.length(); i++) {
+                JSONObject remoteIssueJson = remoteIssues.getJSONObject(i);
+                Issue remoteIssue = issueParser.parse(remoteIssueJson);
                 JiraIssue jiraIssue = new JiraIssue();
                 fillIssue(jiraIssue, remoteIssue);
+                if (remoteIssueJson.has("transitions")) {
+                    jiraIssue.setRemoteIssue(new RemoteIssueHandle(remoteIssue.getId(), remoteIssue.getKey(), remoteIssue.getSelf(),
+                            remoteIssue.getTransitionsUri(), WorkflowTransitionParser.parse(remoteIssueJson.getJSONArray("transitions"))));
+                }
                 issues.add(jiraIssue);
             }
-        } catch (MojoFailureException ex) {
-            log.warn("No issues found.");
+            return result.getInt("total");
+        } catch (IOException | JSONException ex) {
+            throw fail("Unable to search issues", ex);
+        }
+    }
+
+    private void writeSnapshot(String jql, String fingerprint, List<JiraIssue> issues) {
+        if (snapshotFile != null) {
+            try {
+                IssuesSnapshot.write(snapshotFile, jql, fingerprint, issues);
+                log.debug("Issues snapshot written to " + snapshotFile);
+            } catch (IOException ex) {
+                log.warn("Unable to write issues snapshot " + snapshotFile, ex);
+            }
         }
-        return issues;
     }
 
     public void setClient(JiraClient client) {
         this.client = client;
     }
 
+    /**
+     * Sets the entities to expand in the search.
+     *
+     * @param expand Comma separated entities, e.g. <code>transitions</code>
+     */
+    public void setExpand(String expand) {
+        this.expand = expand;
+    }
+
+    /**
+     * Sets the number of issues requested for each page of the search.
+     *
+     * @param pageSize The page size
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Ties the issues snapshot to a digest of the issues, so that a snapshot
+     * of other issues is not reused.
+     *
+     * @param issuesDigest The digest from {@link #getIssuesDigest()}
+     */
+    public void setIssuesDigest(String issuesDigest) {
+        this.issuesDigest = issuesDigest;
+    }
+
+    public void setSnapshotFile(File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Sets the maximum age of a reusable snapshot.
+     *
+     * @param snapshotMaxAge The maximum age in seconds, 0 to never reuse it
+     */
+    public void setSnapshotMaxAge(int snapshotMaxAge) {
+        this.snapshotMaxAge = snapshotMaxAge;
+    }
+
     public void setJqlTemplate(String jqlTemplate) {
         this.jqlTemplate = jqlTemplate;
     }
@@ -108,6 +371,25 @@ public class IssuesDownloader {
         this.releaseVersion = releaseVersion;
     }
 
+    /**
+     * Sets the JIRA version name to query, instead of deriving it from the
+     * release version.
+     *
+     * @param jiraVersion The JIRA version name
+     */
+    public void setJiraVersion(String jiraVersion) {
+        this.jiraVersion = jiraVersion;
+    }
+
+    /**
+     * Sets the pool of the strings of the downloaded issues.
+     *
+     * @param stringPool The pool, shared by concurrent downloaders
+     */
+    public void setStringPool(ConcurrentMap<String, String> stringPool) {
+        this.stringPool = stringPool;
+    }
+
     public void setJiraProjectKey(String jiraProjectKey) {
         this.jiraProjectKey = jiraProjectKey;
     }
@@ -151,48 +433,77 @@ public class IssuesDownloader {
         // reporter
         User reporter = remoteIssue.getReporter();
         if (reporter != null) {
-            issue.setReporter(reporter.getDisplayName());
+            issue.setReporter(pool(reporter.getDisplayName()));
         }
         // type
-        issue.setType(remoteIssue.getIssueType().getName());
+        issue.setType(pool(remoteIssue.getIssueType().getName()));
         // key
         issue.setKey(remoteIssue.getKey());
+        issue.setRemoteIssue(new RemoteIssueHandle(remoteIssue.getId(), remoteIssue.getKey(), remoteIssue.getSelf(), remoteIssue.getTransitionsUri()));
         issue.setLink(String.format("%s/browse/%s", client.getJiraURL(), remoteIssue.getKey()));
         User assignee = remoteIssue.getAssignee();
         if (assignee != null) {
-            issue.setAssignee(assignee.getDisplayName());
+            issue.setAssignee(pool(assignee.getDisplayName()));
         }
         issue.setCreated(remoteIssue.getCreationDate().toDate());
         issue.setId(remoteIssue.getId().toString());
         BasicPriority priority = remoteIssue.getPriority();
         if (priority != null) {
-            issue.setPriority(priority.getName());
+            issue.setPriority(pool(priority.getName()));
         }
         Resolution resolution = remoteIssue.getResolution();
         if (resolution != null) {
-            issue.setResolution(resolution.getName());
+            issue.setResolution(pool(resolution.getName()));
         }
-        issue.setStatus(remoteIssue.getStatus().getName());
+        issue.setStatus(pool(remoteIssue.getStatus().getName()));
 
         issue.setSummary(remoteIssue.getSummary());
         issue.setUpdated(remoteIssue.getUpdateDate().toDate());
+        IssueField resolutionDate = remoteIssue.getField("resolutiondate");
+        if (resolutionDate != null && resolutionDate.getValue() != null) {
+            issue.setResolved(JsonParseUtil.parseDateTime(resolutionDate.getValue().toString()).toDate());
+        }
 
         for (Comment remoteComment : remoteIssue.getComments()) {
             issue.addComment(remoteComment.getBody());
         }
         for (BasicComponent remoteComponent : remoteIssue.getComponents()) {
-            issue.addComponent(remoteComponent.getName());
+            issue.addComponent(pool(remoteComponent.getName()));
         }
         Iterable<Version> fixVersions = remoteIssue.getFixVersions();
         if (fixVersions != null) {
             for (Version remoteVersion : fixVersions) {
-                issue.addFixVersion(remoteVersion.getName());
+                issue.addFixVersion(pool(remoteVersion.getName()));
             }
         }
     }
 
+    /**
+     * @return the pooled instance of the value
+     */
+    protected String pool(String value) {
+        if (stringPool == null || value == null) {
+            return value;
+        }
+        String pooled = stringPool.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
     protected MojoFailureException fail(String message, Exception e) {
         getLog().error(message, e);
         return new MojoFailureException(e, message, e.getMessage());
     }
+
+    /**
+     * Receives the issues of a search a page at a time.
+     */
+    public interface PageHandler {
+
+        /**
+         * @param issues the issues of the page, which are not used by the
+         * downloader afterwards
+         * @throws MojoFailureException if the page cannot be handled
+         */
+        void handlePage(List<JiraIssue> issues) throws MojoFailureException;
+    }
 }
@@ -17,10 +17,17 @@ package com.github.lucapino.jira.helpers;
 
 import com.github.lucapino.jira.model.JiraIssue;
 import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.TimeZone;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.util.HtmlTools;
 
 /**
  * Generates a report on issues.
@@ -37,16 +44,31 @@ public class IssuesReportGenerator extends AbstractIssuesReportGenerator {
      */
     private static final String NOT_AVAILABLE = "n/a";
     /**
-     * Holds the id:s for the columns to include in the report, in the order
-     * that they should appear in the report.
+     * The bundle keys of the headers of the columns to include in the report,
+     * in the order that they should appear in the report.
      */
-    private final int[] columns;
+    private final String[] headerKeys;
+    /**
+     * The writers of the cells of the columns to include in the report, in
+     * the order that they should appear in the report.
+     */
+    private final CellWriter[] cellWriters;
 
     /**
      * @param includedColumns The id:s of the columns to include in the report
      */
     public IssuesReportGenerator(int[] includedColumns) {
-        this.columns = includedColumns;
+        List<String> keys = new ArrayList<>(includedColumns.length);
+        List<CellWriter> writers = new ArrayList<>(includedColumns.length);
+        for (int column : includedColumns) {
+            CellWriter writer = getCellWriter(column);
+            if (writer != null) {
+                keys.add(getHeaderKey(column));
+                writers.add(writer);
+            }
+        }
+        this.headerKeys = keys.toArray(new String[keys.size()]);
+        this.cellWriters = writers.toArray(new CellWriter[writers.size()]);
     }
 
     public void doGenerateEmptyReport(ResourceBundle bundle, Sink sink) {
@@ -61,20 +83,167 @@ public class IssuesReportGenerator extends AbstractIssuesReportGenerator {
         sinkEndReport(sink);
     }
 
-    public void doGenerateReport(ResourceBundle bundle, Sink sink, List issueList) {
+    public void doGenerateReport(ResourceBundle bundle, Sink sink, List<JiraIssue> issueList) {
+        // The issues are all in memory: count them first, so the summary
+        // opens the report as on the report page of a paged report
+        IssueSummary summary = new IssueSummary();
+        if (issueList != null) {
+            for (JiraIssue issue : issueList) {
+                summary.add(issue);
+            }
+        }
+
         sinkBeginReport(sink, bundle);
 
+        constructSummary(sink, bundle, summary);
+
         constructHeaderRow(sink, issueList, bundle);
 
-        // Always use the international date format as recommended by the W3C:
-        // http://www.w3.org/QA/Tips/iso-date
-        // This date format is used in the Swedish locale.
-        constructDetailRows(sink, issueList, bundle, new Locale("sv"));
+        constructDetailRows(sink, issueList, newDateCells(), null);
+
+        sinkEndReport(sink);
+    }
+
+    /**
+     * Generates a page of a report that is split into several pages.
+     *
+     * @param bundle the report bundle
+     * @param sink the sink of the page
+     * @param issueList the issues of the page
+     * @param summary the summary of the report, counting the issues of the
+     * page
+     */
+    public void doGenerateReportPage(ResourceBundle bundle, Sink sink, List<JiraIssue> issueList, IssueSummary summary) {
+        sinkBeginReport(sink, bundle);
+
+        constructHeaderRow(sink, issueList, bundle);
+
+        constructDetailRows(sink, issueList, newDateCells(), summary);
 
         sinkEndReport(sink);
     }
 
-    private void constructHeaderRow(Sink sink, List issueList, ResourceBundle bundle) {
+    /**
+     * Generates the page of a report that is split into several pages: the
+     * summary of the issues followed by the links to the pages.
+     *
+     * @param bundle the report bundle
+     * @param sink the sink of the report page
+     * @param pages the labels of the pages by their link
+     * @param summary the summary counted while the pages were generated
+     */
+    public void doGenerateIndex(ResourceBundle bundle, Sink sink, Map<String, String> pages, IssueSummary summary) {
+        sinkBeginReport(sink, bundle);
+
+        constructSummary(sink, bundle, summary);
+
+        sink.list();
+
+        for (Map.Entry<String, String> page : pages.entrySet()) {
+            sink.listItem();
+            sinkLink(sink, page.getValue(), page.getKey());
+            sink.listItem_();
+        }
+
+        sink.list_();
+
+        sinkEndReport(sink);
+    }
+
+    /**
+     * Generates a report covering several versions: the trend of the issues
+     * across the versions, then a section per version.
+     *
+     * @param bundle the report bundle
+     * @param sink the sink of the report page
+     * @param issuesByVersion the issues by version name, in release order
+     */
+    public void doGenerateHistoryReport(ResourceBundle bundle, Sink sink, Map<String, List<JiraIssue>> issuesByVersion) {
+        IssueSummary summary = new IssueSummary();
+        DateCells dateCells = newDateCells();
+
+        sinkBeginReport(sink, bundle);
+
+        constructTrend(sink, bundle, issuesByVersion);
+
+        for (Map.Entry<String, List<JiraIssue>> version : issuesByVersion.entrySet()) {
+            sink.section2();
+
+            sinkSectionTitle2Anchor(sink, version.getKey(), version.getKey());
+
+            if (version.getValue().isEmpty()) {
+                sink.paragraph();
+                sink.text(bundle.getString("report.issues.summary.none"));
+                sink.paragraph_();
+            } else {
+                constructHeaderRow(sink, version.getValue(), bundle);
+                constructDetailRows(sink, version.getValue(), dateCells, summary);
+            }
+
+            sink.section2_();
+        }
+
+        constructSummary(sink, bundle, summary);
+
+        sinkEndReport(sink);
+    }
+
+    /**
+     * Writes the number of issues of each version, in total and by type.
+     */
+    private void constructTrend(Sink sink, ResourceBundle bundle, Map<String, List<JiraIssue>> issuesByVersion) {
+        // types get a code in order of appearance
+        Map<String, Integer> typeCodes = new LinkedHashMap<>();
+        int[][] typeCounts = new int[issuesByVersion.size()][];
+        int versionIndex = 0;
+        for (List<JiraIssue> issues : issuesByVersion.values()) {
+            int[] counts = new int[8];
+            for (JiraIssue issue : issues) {
+                Integer code = typeCodes.get(issue.getType());
+                if (code == null) {
+                    code = typeCodes.size();
+                    typeCodes.put(issue.getType(), code);
+                }
+                if (code >= counts.length) {
+                    counts = Arrays.copyOf(counts, code * 2);
+                }
+                counts[code]++;
+            }
+            typeCounts[versionIndex++] = counts;
+        }
+
+        sink.section2();
+
+        sinkSectionTitle2Anchor(sink, bundle.getString("report.issues.trend"), "trend");
+
+        sink.table();
+
+        sink.tableRow();
+        sinkHeader(sink, bundle.getString("report.issues.label.version"));
+        sinkHeader(sink, bundle.getString("report.issues.summary.count"));
+        for (String type : typeCodes.keySet()) {
+            sinkHeader(sink, type != null ? type : bundle.getString("report.issues.summary.none"));
+        }
+        sink.tableRow_();
+
+        versionIndex = 0;
+        for (Map.Entry<String, List<JiraIssue>> version : issuesByVersion.entrySet()) {
+            int[] counts = typeCounts[versionIndex++];
+            sink.tableRow();
+            sinkCellLink(sink, version.getKey(), "#" + HtmlTools.encodeId(version.getKey()));
+            sinkCell(sink, String.valueOf(version.getValue().size()));
+            for (int code = 0; code < typeCodes.size(); code++) {
+                sinkCell(sink, String.valueOf(code < counts.length ? counts[code] : 0));
+            }
+            sink.tableRow_();
+        }
+
+        sink.table_();
+
+        sink.section2_();
+    }
+
+    private void constructHeaderRow(Sink sink, List<JiraIssue> issueList, ResourceBundle bundle) {
         if (issueList == null) {
             return;
         }
@@ -83,161 +252,323 @@ public class IssuesReportGenerator extends AbstractIssuesReportGenerator {
 
         sink.tableRow();
 
-        for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
-            switch (columns[columnIndex]) {
-                case IssuesReportHelper.COLUMN_ASSIGNEE:
-                    sinkHeader(sink, bundle.getString("report.issues.label.assignee"));
-                    break;
+        for (String headerKey : headerKeys) {
+            sinkHeader(sink, bundle.getString(headerKey));
+        }
 
-                case IssuesReportHelper.COLUMN_COMPONENT:
-                    sinkHeader(sink, bundle.getString("report.issues.label.component"));
-                    break;
+        sink.tableRow_();
+    }
 
-                case IssuesReportHelper.COLUMN_CREATED:
-                    sinkHeader(sink, bundle.getString("report.issues.label.created"));
-                    break;
+    /**
+     * Writes the rows of the issues, counting them in the summary unless it
+     * is <code>null</code>.
+     */
+    private void constructDetailRows(Sink sink, List<JiraIssue> issueList, DateCells dateCells, IssueSummary summary) {
+        if (issueList == null) {
+            return;
+        }
 
-                case IssuesReportHelper.COLUMN_FIX_VERSION:
-                    sinkHeader(sink, bundle.getString("report.issues.label.fixVersion"));
-                    break;
+        for (JiraIssue issue : issueList) {
+            sink.tableRow();
 
-                case IssuesReportHelper.COLUMN_ID:
-                    sinkHeader(sink, bundle.getString("report.issues.label.id"));
-                    break;
+            for (CellWriter cellWriter : cellWriters) {
+                cellWriter.write(this, sink, issue, dateCells);
+            }
 
-                case IssuesReportHelper.COLUMN_KEY:
-                    sinkHeader(sink, bundle.getString("report.issues.label.key"));
-                    break;
+            sink.tableRow_();
 
-                case IssuesReportHelper.COLUMN_PRIORITY:
-                    sinkHeader(sink, bundle.getString("report.issues.label.priority"));
-                    break;
+            if (summary != null) {
+                summary.add(issue);
+            }
+        }
 
-                case IssuesReportHelper.COLUMN_REPORTER:
-                    sinkHeader(sink, bundle.getString("report.issues.label.reporter"));
-                    break;
+        sink.table_();
+    }
 
-                case IssuesReportHelper.COLUMN_RESOLUTION:
-                    sinkHeader(sink, bundle.getString("report.issues.label.resolution"));
-                    break;
+    private void constructSummary(Sink sink, ResourceBundle bundle, IssueSummary summary) {
+        if (summary.getIssueCount() == 0) {
+            return;
+        }
 
-                case IssuesReportHelper.COLUMN_STATUS:
-                    sinkHeader(sink, bundle.getString("report.issues.label.status"));
-                    break;
+        sink.section2();
 
-                case IssuesReportHelper.COLUMN_SUMMARY:
-                    sinkHeader(sink, bundle.getString("report.issues.label.summary"));
-                    break;
+        sinkSectionTitle2Anchor(sink, bundle.getString("report.issues.summary"), "summary");
 
-                case IssuesReportHelper.COLUMN_TYPE:
-                    sinkHeader(sink, bundle.getString("report.issues.label.type"));
-                    break;
+        String countHeader = bundle.getString("report.issues.summary.count");
+        String noValue = bundle.getString("report.issues.summary.none");
 
-                case IssuesReportHelper.COLUMN_UPDATED:
-                    sinkHeader(sink, bundle.getString("report.issues.label.updated"));
-                    break;
+        for (IssueSummary.Counter counter : summary.getCounters()) {
+            sinkSummaryHeader(sink, bundle.getString(counter.getLabelKey()), countHeader);
+            for (int code : counter.getCodesByCount()) {
+                sinkSummaryRow(sink, counter.getValue(code), counter.getCount(code));
+            }
+            if (counter.getNoValueCount() > 0) {
+                sinkSummaryRow(sink, noValue, counter.getNoValueCount());
+            }
+            sink.table_();
+        }
 
-                default:
-                    // Do not add a header for this column
-                    break;
+        for (IssueSummary.Histogram histogram : summary.getHistograms()) {
+            int firstMonth = histogram.getFirstMonth();
+            if (firstMonth < 0) {
+                continue;
+            }
+            sinkSummaryHeader(sink, bundle.getString(histogram.getLabelKey()), countHeader);
+            for (int month = firstMonth; month <= histogram.getLastMonth(); month++) {
+                sinkSummaryRow(sink, String.format("%04d-%02d", month / 12, month % 12 + 1), histogram.getCount(month));
             }
+            sink.table_();
         }
 
+        sink.section2_();
+    }
+
+    private void sinkSummaryHeader(Sink sink, String label, String countHeader) {
+        sink.table();
+
+        sink.tableRow();
+        sinkHeader(sink, label);
+        sinkHeader(sink, countHeader);
         sink.tableRow_();
     }
 
-    private void constructDetailRows(Sink sink, List issueList, ResourceBundle bundle, Locale locale) {
-        if (issueList == null) {
-            return;
+    private void sinkSummaryRow(Sink sink, String value, int count) {
+        sink.tableRow();
+        sinkCell(sink, value);
+        sinkCell(sink, String.valueOf(count));
+        sink.tableRow_();
+    }
+
+    private static DateCells newDateCells() {
+        // Always use the international date format as recommended by the W3C:
+        // http://www.w3.org/QA/Tips/iso-date
+        // This date format is used in the Swedish locale.
+        return new DateCells(new Locale("sv"));
+    }
+
+    private static String getHeaderKey(int column) {
+        switch (column) {
+            case IssuesReportHelper.COLUMN_ASSIGNEE:
+                return "report.issues.label.assignee";
+            case IssuesReportHelper.COLUMN_COMPONENT:
+                return "report.issues.label.component";
+            case IssuesReportHelper.COLUMN_CREATED:
+                return "report.issues.label.created";
+            case IssuesReportHelper.COLUMN_FIX_VERSION:
+                return "report.issues.label.fixVersion";
+            case IssuesReportHelper.COLUMN_ID:
+                return "report.issues.label.id";
+            case IssuesReportHelper.COLUMN_KEY:
+                return "report.issues.label.key";
+            case IssuesReportHelper.COLUMN_PRIORITY:
+                return "report.issues.label.priority";
+            case IssuesReportHelper.COLUMN_REPORTER:
+                return "report.issues.label.reporter";
+            case IssuesReportHelper.COLUMN_RESOLUTION:
+                return "report.issues.label.resolution";
+            case IssuesReportHelper.COLUMN_STATUS:
+                return "report.issues.label.status";
+            case IssuesReportHelper.COLUMN_SUMMARY:
+                return "report.issues.label.summary";
+            case IssuesReportHelper.COLUMN_TYPE:
+                return "report.issues.label.type";
+            case IssuesReportHelper.COLUMN_UPDATED:
+                return "report.issues.label.updated";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the writer of the cells of the column, or <code>null</code> if
+     * the column is unknown
+     */
+    private static CellWriter getCellWriter(int column) {
+        switch (column) {
+            case IssuesReportHelper.COLUMN_ASSIGNEE:
+                return ASSIGNEE;
+            case IssuesReportHelper.COLUMN_COMPONENT:
+                return COMPONENT;
+            case IssuesReportHelper.COLUMN_CREATED:
+                return CREATED;
+            case IssuesReportHelper.COLUMN_FIX_VERSION:
+                return FIX_VERSION;
+            case IssuesReportHelper.COLUMN_ID:
+                return ID;
+            case IssuesReportHelper.COLUMN_KEY:
+                return KEY;
+            case IssuesReportHelper.COLUMN_PRIORITY:
+                return PRIORITY;
+            case IssuesReportHelper.COLUMN_REPORTER:
+                return REPORTER;
+            case IssuesReportHelper.COLUMN_RESOLUTION:
+                return RESOLUTION;
+            case IssuesReportHelper.COLUMN_STATUS:
+                return STATUS;
+            case IssuesReportHelper.COLUMN_SUMMARY:
+                return SUMMARY;
+            case IssuesReportHelper.COLUMN_TYPE:
+                return TYPE;
+            case IssuesReportHelper.COLUMN_UPDATED:
+                return UPDATED;
+            default:
+                // Do not add this column
+                return null;
         }
+    }
 
-        for (int idx = 0; idx < issueList.size(); idx++) {
-            // Use a DateFormat based on the Locale
-            DateFormat df = DateFormat.getDateInstance(DateFormat.SHORT, locale);
+    /**
+     * Writes the cell of a column for an issue.
+     */
+    private interface CellWriter {
 
-            JiraIssue issue = (JiraIssue) issueList.get(idx);
+        void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells);
+    }
 
-            sink.tableRow();
+    private static final CellWriter ASSIGNEE = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, issue.getAssignee());
+        }
+    };
+
+    private static final CellWriter COMPONENT = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            sinkValuesCell(sink, issue.getComponents());
+        }
+    };
+
+    private static final CellWriter CREATED = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, dateCells.format(issue.getCreated()));
+        }
+    };
+
+    private static final CellWriter FIX_VERSION = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            sinkValuesCell(sink, issue.getFixVersions());
+        }
+    };
+
+    private static final CellWriter ID = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCellLink(sink, issue.getId(), issue.getLink());
+        }
+    };
+
+    private static final CellWriter KEY = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCellLink(sink, issue.getKey(), issue.getLink());
+        }
+    };
+
+    private static final CellWriter PRIORITY = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, issue.getPriority());
+        }
+    };
+
+    private static final CellWriter REPORTER = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, issue.getReporter());
+        }
+    };
+
+    private static final CellWriter RESOLUTION = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, issue.getResolution());
+        }
+    };
+
+    private static final CellWriter STATUS = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, issue.getStatus());
+        }
+    };
+
+    private static final CellWriter SUMMARY = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, issue.getSummary());
+        }
+    };
+
+    private static final CellWriter TYPE = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, issue.getType());
+        }
+    };
+
+    private static final CellWriter UPDATED = new CellWriter() {
+        @Override
+        public void write(IssuesReportGenerator report, Sink sink, JiraIssue issue, DateCells dateCells) {
+            report.sinkCell(sink, dateCells.format(issue.getUpdated()));
+        }
+    };
 
-            for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
-                switch (columns[columnIndex]) {
-                    case IssuesReportHelper.COLUMN_ASSIGNEE:
-                        sinkCell(sink, issue.getAssignee());
-                        break;
-
-                    case IssuesReportHelper.COLUMN_COMPONENT:
-                        sinkCell(sink, IssuesReportHelper.printValues(issue.getComponents()));
-                        break;
-
-                    case IssuesReportHelper.COLUMN_CREATED:
-                        String created = NOT_AVAILABLE;
-                        if (issue.getCreated() != null) {
-                            created = df.format(issue.getCreated());
-                        }
-                        sinkCell(sink, created);
-                        break;
-
-                    case IssuesReportHelper.COLUMN_FIX_VERSION:
-                        sinkCell(sink, IssuesReportHelper.printValues(issue.getFixVersions()));
-                        break;
-
-                    case IssuesReportHelper.COLUMN_ID:
-                        sink.tableCell();
-                        sink.link(issue.getLink());
-                        sink.text(issue.getId());
-                        sink.link_();
-                        sink.tableCell_();
-                        break;
-
-                    case IssuesReportHelper.COLUMN_KEY:
-                        sink.tableCell();
-                        sink.link(issue.getLink());
-                        sink.text(issue.getKey());
-                        sink.link_();
-                        sink.tableCell_();
-                        break;
-
-                    case IssuesReportHelper.COLUMN_PRIORITY:
-                        sinkCell(sink, issue.getPriority());
-                        break;
-
-                    case IssuesReportHelper.COLUMN_REPORTER:
-                        sinkCell(sink, issue.getReporter());
-                        break;
-
-                    case IssuesReportHelper.COLUMN_RESOLUTION:
-                        sinkCell(sink, issue.getResolution());
-                        break;
-
-                    case IssuesReportHelper.COLUMN_STATUS:
-                        sinkCell(sink, issue.getStatus());
-                        break;
-
-                    case IssuesReportHelper.COLUMN_SUMMARY:
-                        sinkCell(sink, issue.getSummary());
-                        break;
-
-                    case IssuesReportHelper.COLUMN_TYPE:
-                        sinkCell(sink, issue.getType());
-                        break;
-
-                    case IssuesReportHelper.COLUMN_UPDATED:
-                        String updated = NOT_AVAILABLE;
-                        if (issue.getUpdated() != null) {
-                            updated = df.format(issue.getUpdated());
-                        }
-                        sinkCell(sink, updated);
-                        break;
-
-                    default:
-                        // Do not add this column
-                        break;
+    /**
+     * Writes the values separated by commas, without joining them first.
+     */
+    private static void sinkValuesCell(Sink sink, List<String> values) {
+        sink.tableCell();
+        if (values == null || values.isEmpty()) {
+            sink.text("");
+        } else {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    sink.text(", ");
                 }
+                sink.text(values.get(i));
             }
+        }
+        sink.tableCell_();
+    }
 
-            sink.tableRow_();
+    /**
+     * Formats the dates of a single report. Issues of a report share few
+     * distinct days, so formatted days are remembered by epoch day.
+     */
+    private static final class DateCells {
+
+        private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+        private static final int MEMO_SIZE = 1024;
+
+        private final DateFormat dateFormat;
+        private final TimeZone timeZone;
+        private final long[] memoDays = new long[MEMO_SIZE];
+        private final String[] memoTexts = new String[MEMO_SIZE];
+
+        DateCells(Locale locale) {
+            // Use a DateFormat based on the Locale
+            dateFormat = DateFormat.getDateInstance(DateFormat.SHORT, locale);
+            timeZone = dateFormat.getTimeZone();
         }
 
-        sink.table_();
+        String format(Date date) {
+            if (date == null) {
+                return NOT_AVAILABLE;
+            }
+            long time = date.getTime();
+            long localTime = time + timeZone.getOffset(time);
+            long day = localTime >= 0 ? localTime / MILLIS_PER_DAY : (localTime + 1) / MILLIS_PER_DAY - 1;
+            int slot = (int) (day & (MEMO_SIZE - 1));
+            String text = memoTexts[slot];
+            if (text == null || memoDays[slot] != day) {
+                text = dateFormat.format(date);
+                memoDays[slot] = day;
+                memoTexts[slot] = text;
+            }
+            return text;
+        }
     }
 }
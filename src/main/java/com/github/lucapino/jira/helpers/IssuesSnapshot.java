@@ -0,0 +1,296 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.JiraIssue;
+import com.github.lucapino.jira.model.RemoteIssueHandle;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Reads and writes a compact binary snapshot of a downloaded issue list, so
+ * that goals running later in the same build can skip the JIRA query.
+ * <p>
+ * Layout: a header (magic, format version, creation time, JQL, fingerprint),
+ * a dictionary holding every distinct string once, then the issues with all
+ * their string fields stored as dictionary indexes.
+ * </p>
+ *
+ * @author Luca Tagliani
+ */
+public class IssuesSnapshot {
+
+    private static final int MAGIC = 0x4A495353;
+    private static final int FORMAT_VERSION = 3;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int NULL_INDEX = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private IssuesSnapshot() {
+    }
+
+    /**
+     * Computes a fingerprint over the given values.
+     *
+     * @param values the values identifying the snapshot content
+     * @return an hex encoded SHA-1 digest
+     */
+    public static String fingerprint(Object... values) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            for (Object value : values) {
+                digest.update(String.valueOf(value).getBytes(UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the issues to the snapshot file. The file is written aside and
+     * then moved in place, so readers never see a partial snapshot.
+     *
+     * @param file the snapshot file
+     * @param jql the JQL the issues were downloaded with
+     * @param fingerprint the fingerprint of the download parameters
+     * @param issues the issues to store
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(File file, String jql, String fingerprint, List<JiraIssue> issues) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (JiraIssue issue : issues) {
+            collect(dictionary, strings, issue.getId(), issue.getKey(), issue.getLink(), issue.getAssignee(),
+                    issue.getReporter(), issue.getPriority(), issue.getResolution(), issue.getStatus(),
+                    issue.getSummary(), issue.getType());
+            collect(dictionary, strings, issue.getComments());
+            collect(dictionary, strings, issue.getComponents());
+            collect(dictionary, strings, issue.getFixVersions());
+            RemoteIssueHandle handle = issue.getRemoteIssue();
+            if (handle != null) {
+                collect(dictionary, strings, toString(handle.getSelf()), toString(handle.getTransitionsUri()));
+            }
+        }
+
+        FileUtils.forceMkdir(file.getAbsoluteFile().getParentFile());
+        // a file of its own, in case another build thread writes the same snapshot
+        File tempFile = File.createTempFile(file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(FileUtils.openOutputStream(tempFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            writeString(out, jql);
+            writeString(out, fingerprint);
+            out.writeInt(strings.size());
+            for (String value : strings) {
+                writeString(out, value);
+            }
+            out.writeInt(issues.size());
+            for (JiraIssue issue : issues) {
+                writeIndex(out, dictionary, issue.getId());
+                writeIndex(out, dictionary, issue.getKey());
+                writeIndex(out, dictionary, issue.getLink());
+                writeIndex(out, dictionary, issue.getAssignee());
+                writeIndex(out, dictionary, issue.getReporter());
+                writeIndex(out, dictionary, issue.getPriority());
+                writeIndex(out, dictionary, issue.getResolution());
+                writeIndex(out, dictionary, issue.getStatus());
+                writeIndex(out, dictionary, issue.getSummary());
+                writeIndex(out, dictionary, issue.getType());
+                writeDate(out, issue.getCreated());
+                writeDate(out, issue.getUpdated());
+                writeDate(out, issue.getResolved());
+                writeIndexes(out, dictionary, issue.getComments());
+                writeIndexes(out, dictionary, issue.getComponents());
+                writeIndexes(out, dictionary, issue.getFixVersions());
+                RemoteIssueHandle handle = issue.getRemoteIssue();
+                out.writeBoolean(handle != null);
+                if (handle != null) {
+                    out.writeLong(handle.getId());
+                    writeIndex(out, dictionary, toString(handle.getSelf()));
+                    writeIndex(out, dictionary, toString(handle.getTransitionsUri()));
+                }
+            }
+        } finally {
+            out.close();
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the issues from the snapshot file, if it is usable.
+     *
+     * @param file the snapshot file
+     * @param jql the JQL the caller would run
+     * @param fingerprint the fingerprint of the caller download parameters
+     * @param maxAge the maximum age of the snapshot, in milliseconds
+     * @return the stored issues, or <code>null</code> if the snapshot does not
+     * exist, is too old or was written for a different query
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static List<JiraIssue> read(File file, String jql, String fingerprint, long maxAge) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        // read on the heap rather than mapped: a mapped file cannot be
+        // replaced on Windows until the mapping is garbage collected
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        try {
+            if (buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            long createdAt = buffer.getLong();
+            if (System.currentTimeMillis() - createdAt > maxAge) {
+                return null;
+            }
+            if (!jql.equals(readString(buffer)) || !fingerprint.equals(readString(buffer))) {
+                return null;
+            }
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(buffer);
+            }
+            int count = buffer.getInt();
+            List<JiraIssue> issues = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                JiraIssue issue = new JiraIssue();
+                issue.setId(readIndex(buffer, strings));
+                issue.setKey(readIndex(buffer, strings));
+                issue.setLink(readIndex(buffer, strings));
+                issue.setAssignee(readIndex(buffer, strings));
+                issue.setReporter(readIndex(buffer, strings));
+                issue.setPriority(readIndex(buffer, strings));
+                issue.setResolution(readIndex(buffer, strings));
+                issue.setStatus(readIndex(buffer, strings));
+                issue.setSummary(readIndex(buffer, strings));
+                issue.setType(readIndex(buffer, strings));
+                issue.setCreated(readDate(buffer));
+                issue.setUpdated(readDate(buffer));
+                issue.setResolved(readDate(buffer));
+                int comments = buffer.getInt();
+                for (int j = 0; j < comments; j++) {
+                    issue.addComment(readIndex(buffer, strings));
+                }
+                int components = buffer.getInt();
+                for (int j = 0; j < components; j++) {
+                    issue.addComponent(readIndex(buffer, strings));
+                }
+                int fixVersions = buffer.getInt();
+                for (int j = 0; j < fixVersions; j++) {
+                    issue.addFixVersion(readIndex(buffer, strings));
+                }
+                if (buffer.get() != 0) {
+                    long id = buffer.getLong();
+                    URI self = toURI(readIndex(buffer, strings));
+                    URI transitionsUri = toURI(readIndex(buffer, strings));
+                    issue.setRemoteIssue(new RemoteIssueHandle(id, issue.getKey(), self, transitionsUri));
+                }
+                issues.add(issue);
+            }
+            return issues;
+        } catch (RuntimeException e) {
+            // truncated or corrupted snapshot
+            throw new IOException("Invalid issues snapshot " + file, e);
+        }
+    }
+
+    private static void collect(Map<String, Integer> dictionary, List<String> strings, String... values) {
+        for (String value : values) {
+            if (value != null && !dictionary.containsKey(value)) {
+                dictionary.put(value, strings.size());
+                strings.add(value);
+            }
+        }
+    }
+
+    private static void collect(Map<String, Integer> dictionary, List<String> strings, List<String> values) {
+        if (values != null) {
+            collect(dictionary, strings, values.toArray(new String[values.size()]));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeIndex(DataOutputStream out, Map<String, Integer> dictionary, String value) throws IOException {
+        out.writeInt(value == null ? NULL_INDEX : dictionary.get(value));
+    }
+
+    private static void writeIndexes(DataOutputStream out, Map<String, Integer> dictionary, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(0);
+        } else {
+            out.writeInt(values.size());
+            for (String value : values) {
+                writeIndex(out, dictionary, value);
+            }
+        }
+    }
+
+    private static void writeDate(DataOutputStream out, Date date) throws IOException {
+        out.writeLong(date == null ? NULL_DATE : date.getTime());
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static String readIndex(ByteBuffer buffer, String[] strings) {
+        int index = buffer.getInt();
+        return index == NULL_INDEX ? null : strings[index];
+    }
+
+    private static String toString(URI uri) {
+        return uri == null ? null : uri.toString();
+    }
+
+    private static URI toURI(String value) {
+        return value == null ? null : URI.create(value);
+    }
+
+    private static Date readDate(ByteBuffer buffer) {
+        long time = buffer.getLong();
+        return time == NULL_DATE ? null : new Date(time);
+    }
+}
@@ -17,29 +17,44 @@
  */
 package com.github.lucapino.jira.helpers;
 
+import com.atlassian.httpclient.api.Response;
 import com.atlassian.jira.rest.client.api.AuthenticationHandler;
 import com.atlassian.jira.rest.client.api.JiraRestClient;
-import com.atlassian.jira.rest.client.api.JiraRestClientFactory;
-import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
+import com.atlassian.jira.rest.client.auth.AnonymousAuthenticationHandler;
+import com.atlassian.jira.rest.client.auth.BasicHttpAuthenticationHandler;
+import com.atlassian.jira.rest.client.internal.async.AsynchronousHttpClientFactory;
+import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClient;
+import com.atlassian.jira.rest.client.internal.async.DisposableHttpClient;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Map;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
 
 public class JiraClient {
 
     private final JiraRestClient jiraRestClient;
 
+    private final DisposableHttpClient httpClient;
+
     private final URL url;
 
     public JiraClient(String username, String password, String url) throws Exception {
-        JiraRestClientFactory factory = new AsynchronousJiraRestClientFactory();
         URI jiraServerUri = new URI(url);
         this.url = jiraServerUri.toURL();
+        AuthenticationHandler authenticationHandler;
         if (username != null && password != null) {
-            jiraRestClient = factory.createWithBasicHttpAuthentication(jiraServerUri, username, password);
+            authenticationHandler = new BasicHttpAuthenticationHandler(username, password);
         } else {
-            jiraRestClient = factory.create(jiraServerUri, (AuthenticationHandler) null);
+            authenticationHandler = new AnonymousAuthenticationHandler();
         }
-
+        // the same HTTP client serves both JRJC and the raw REST calls
+        httpClient = new AsynchronousHttpClientFactory().createClient(jiraServerUri, authenticationHandler);
+        jiraRestClient = new AsynchronousJiraRestClient(jiraServerUri, httpClient);
     }
 
     public JiraRestClient getRestClient() {
@@ -49,4 +64,75 @@ public class JiraClient {
     public URL getJiraURL() {
         return url;
     }
+
+    /**
+     * Builds the URI of a JIRA REST resource.
+     *
+     * @param path the resource path, relative to <code>rest/api/2/</code>
+     * @param query the query parameters, may be <code>null</code>
+     * @return the resource URI
+     */
+    public URI getRestUri(String path, Map<String, String> query) {
+        StringBuilder sb = new StringBuilder(url.toString());
+        if (sb.charAt(sb.length() - 1) != '/') {
+            sb.append('/');
+        }
+        sb.append("rest/api/2/").append(path);
+        if (query != null) {
+            char separator = '?';
+            for (Map.Entry<String, String> parameter : query.entrySet()) {
+                sb.append(separator).append(encode(parameter.getKey())).append('=').append(encode(parameter.getValue()));
+                separator = '&';
+            }
+        }
+        return URI.create(sb.toString());
+    }
+
+    /**
+     * Performs a GET request for resources not covered by the JRJC API, or
+     * requiring parameters JRJC does not send.
+     *
+     * @param uri the resource URI
+     * @return the JSON response
+     * @throws IOException if the request fails
+     */
+    public JSONObject getJson(URI uri) throws IOException {
+        try {
+            return new JSONObject(get(uri));
+        } catch (JSONException e) {
+            throw new IOException("Invalid JSON response from " + uri, e);
+        }
+    }
+
+    /**
+     * Performs a GET request for a resource returning a JSON array.
+     *
+     * @param uri the resource URI
+     * @return the JSON response
+     * @throws IOException if the request fails
+     * @see #getJson(URI)
+     */
+    public JSONArray getJsonArray(URI uri) throws IOException {
+        try {
+            return new JSONArray(get(uri));
+        } catch (JSONException e) {
+            throw new IOException("Invalid JSON response from " + uri, e);
+        }
+    }
+
+    private String get(URI uri) throws IOException {
+        Response response = httpClient.newRequest(uri).setAccept("application/json").get().claim();
+        if (!response.isSuccessful()) {
+            throw new IOException("GET " + uri + " failed: " + response.getStatusCode() + " " + response.getStatusText());
+        }
+        return response.getEntity();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Logic-less, Mustache style template engine. Templates are compiled once
+ * into a tree of nodes, which then write straight to the output.
+ * <p>
+ * Supported tags: <code>{{name}}</code> (HTML escaped),
+ * <code>{{{name}}}</code> and <code>{{&amp;name}}</code> (not escaped),
+ * sections <code>{{#name}}...{{/name}}</code>, inverted sections
+ * <code>{{^name}}...{{/name}}</code> and comments <code>{{! ...}}</code>.
+ * Names may be dotted, as in <code>{{project.name}}</code>, and
+ * <code>{{.}}</code> is the current item. Values are looked up in maps and
+ * through getters. Partials and delimiter changes are not supported.
+ * </p>
+ *
+ * @author Luca Tagliani
+ */
+public class MustacheTemplateEngine implements TemplateEngine {
+
+    private static final ConcurrentMap<String, CompiledTemplate> TEMPLATES = new ConcurrentHashMap<>();
+    /**
+     * Getters by class and name, {@link #MISSING} for names without one.
+     */
+    private static final ConcurrentMap<String, Object> GETTERS = new ConcurrentHashMap<>();
+    private static final Object MISSING = new Object();
+
+    @Override
+    public String getName() {
+        return "mustache";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return Arrays.asList("mustache", "hbs");
+    }
+
+    @Override
+    public void render(File template, Map<String, Object> parameters, Writer writer) throws IOException {
+        File canonicalFile = template.getCanonicalFile();
+        String key = canonicalFile.getPath();
+        CompiledTemplate compiled = TEMPLATES.get(key);
+        if (compiled == null || compiled.lastModified != canonicalFile.lastModified()) {
+            long lastModified = canonicalFile.lastModified();
+            compiled = new CompiledTemplate(compile(FileUtils.readFileToString(canonicalFile, "UTF-8")), lastModified);
+            TEMPLATES.put(key, compiled);
+        }
+        Deque<Object> contexts = new ArrayDeque<>();
+        contexts.push(parameters);
+        compiled.root.render(contexts, writer);
+    }
+
+    /**
+     * Compiles a template into its node tree.
+     *
+     * @param template the template text
+     * @return the root node
+     * @throws IllegalArgumentException if the template is malformed
+     */
+    static Node compile(String template) {
+        Deque<Section> sections = new ArrayDeque<>();
+        List<Node> nodes = new ArrayList<>();
+        int pos = 0;
+        while (pos < template.length()) {
+            int start = template.indexOf("{{", pos);
+            if (start < 0) {
+                nodes.add(new Text(template.substring(pos)));
+                break;
+            }
+            boolean triple = template.startsWith("{{{", start);
+            int end = template.indexOf(triple ? "}}}" : "}}", start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed tag at " + start);
+            }
+            int tagEnd = end + (triple ? 3 : 2);
+            String tag = template.substring(start + (triple ? 3 : 2), end).trim();
+            char type = triple || tag.isEmpty() ? '{' : tag.charAt(0);
+            String name = "#^/!&".indexOf(type) >= 0 ? tag.substring(1).trim() : tag;
+
+            int textEnd = start;
+            int next = tagEnd;
+            if ("#^/!".indexOf(type) >= 0) {
+                // a tag alone on its line leaves no blank line behind
+                int lineStart = template.lastIndexOf('\n', start - 1) + 1;
+                int lineEnd = template.indexOf('\n', tagEnd);
+                String after = template.substring(tagEnd, lineEnd < 0 ? template.length() : lineEnd);
+                if (lineStart >= pos && template.substring(lineStart, start).trim().isEmpty() && after.trim().isEmpty()) {
+                    textEnd = lineStart;
+                    next = lineEnd < 0 ? template.length() : lineEnd + 1;
+                }
+            }
+            if (textEnd > pos) {
+                nodes.add(new Text(template.substring(pos, textEnd)));
+            }
+            pos = next;
+
+            switch (type) {
+                case '!':
+                    break;
+                case '#':
+                case '^':
+                    sections.push(new Section(name, type == '^', nodes));
+                    nodes = new ArrayList<>();
+                    break;
+                case '/':
+                    if (sections.isEmpty() || !sections.peek().name.equals(name)) {
+                        throw new IllegalArgumentException("Unexpected end of section '" + name + "' at " + start);
+                    }
+                    Section section = sections.pop();
+                    section.children = nodes.toArray(new Node[nodes.size()]);
+                    nodes = section.parentNodes;
+                    nodes.add(section);
+                    break;
+                default:
+                    nodes.add(new Variable(name, type != '{' && type != '&'));
+                    break;
+            }
+        }
+        if (!sections.isEmpty()) {
+            throw new IllegalArgumentException("Unclosed section '" + sections.peek().name + "'");
+        }
+        return new Block(nodes.toArray(new Node[nodes.size()]));
+    }
+
+    /**
+     * Looks a name up in the contexts, innermost first.
+     */
+    private static Object lookup(Deque<Object> contexts, String[] path) {
+        if (path.length == 0) {
+            Object current = contexts.peek();
+            return current == MISSING ? null : current;
+        }
+        Object value = MISSING;
+        for (Object context : contexts) {
+            value = get(context, path[0]);
+            if (value != MISSING) {
+                break;
+            }
+        }
+        for (int i = 1; i < path.length && value != MISSING && value != null; i++) {
+            value = get(value, path[i]);
+        }
+        return value == MISSING ? null : value;
+    }
+
+    private static Object get(Object context, String name) {
+        if (context == null || context == MISSING) {
+            return MISSING;
+        }
+        if (context instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) context;
+            return map.containsKey(name) ? map.get(name) : MISSING;
+        }
+        Method getter = getGetter(context.getClass(), name);
+        if (getter == null) {
+            return MISSING;
+        }
+        try {
+            return getter.invoke(context);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read '" + name + "' of " + context.getClass().getName(), e);
+        }
+    }
+
+    private static Method getGetter(Class<?> type, String name) {
+        String key = type.getName() + '#' + name;
+        Object getter = GETTERS.get(key);
+        if (getter == null) {
+            getter = MISSING;
+            if (!name.isEmpty()) {
+                String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                for (String candidate : new String[]{"get" + suffix, "is" + suffix, name}) {
+                    try {
+                        Method method = type.getMethod(candidate);
+                        if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+                            getter = method;
+                            break;
+                        }
+                    } catch (NoSuchMethodException e) {
+                        // try the next one
+                    }
+                }
+            }
+            GETTERS.put(key, getter);
+        }
+        return getter == MISSING ? null : (Method) getter;
+    }
+
+    private static boolean isFalsy(Object value) {
+        return value == null || Boolean.FALSE.equals(value)
+                || (value instanceof Collection && ((Collection<?>) value).isEmpty())
+                || (value instanceof Object[] && ((Object[]) value).length == 0);
+    }
+
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entity;
+            switch (value.charAt(i)) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '"':
+                    entity = "&quot;";
+                    break;
+                case '\'':
+                    entity = "&#39;";
+                    break;
+                default:
+                    continue;
+            }
+            writer.write(value, from, i - from);
+            writer.write(entity);
+            from = i + 1;
+        }
+        writer.write(value, from, value.length() - from);
+    }
+
+    private static String[] split(String name) {
+        return ".".equals(name) ? new String[0] : name.split("\\.");
+    }
+
+    /**
+     * A compiled template fragment.
+     */
+    abstract static class Node {
+
+        abstract void render(Deque<Object> contexts, Writer writer) throws IOException;
+    }
+
+    private static final class Block extends Node {
+
+        private final Node[] children;
+
+        Block(Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        void render(Deque<Object> contexts, Writer writer) throws IOException {
+            for (Node child : children) {
+                child.render(contexts, writer);
+            }
+        }
+    }
+
+    private static final class Text extends Node {
+
+        private final String text;
+
+        Text(String text) {
+            this.text = text;
+        }
+
+        @Override
+        void render(Deque<Object> contexts, Writer writer) throws IOException {
+            writer.write(text);
+        }
+    }
+
+    private static final class Variable extends Node {
+
+        private final String[] path;
+        private final boolean escape;
+
+        Variable(String name, boolean escape) {
+            this.path = split(name);
+            this.escape = escape;
+        }
+
+        @Override
+        void render(Deque<Object> contexts, Writer writer) throws IOException {
+            Object value = lookup(contexts, path);
+            if (value != null) {
+                if (escape) {
+                    writeEscaped(writer, value.toString());
+                } else {
+                    writer.write(value.toString());
+                }
+            }
+        }
+    }
+
+    private static final class Section extends Node {
+
+        private final String name;
+        private final String[] path;
+        private final boolean inverted;
+        private final List<Node> parentNodes;
+        private Node[] children;
+
+        Section(String name, boolean inverted, List<Node> parentNodes) {
+            this.name = name;
+            this.path = split(name);
+            this.inverted = inverted;
+            this.parentNodes = parentNodes;
+        }
+
+        @Override
+        void render(Deque<Object> contexts, Writer writer) throws IOException {
+            Object value = lookup(contexts, path);
+            if (inverted) {
+                if (isFalsy(value)) {
+                    renderChildren(contexts, writer);
+                }
+            } else if (!isFalsy(value)) {
+                if (value instanceof Iterable) {
+                    Iterator<?> items = ((Iterable<?>) value).iterator();
+                    while (items.hasNext()) {
+                        renderItem(items.next(), contexts, writer);
+                    }
+                } else if (value instanceof Object[]) {
+                    for (Object item : (Object[]) value) {
+                        renderItem(item, contexts, writer);
+                    }
+                } else if (Boolean.TRUE.equals(value)) {
+                    renderChildren(contexts, writer);
+                } else {
+                    renderItem(value, contexts, writer);
+                }
+            }
+        }
+
+        private void renderItem(Object item, Deque<Object> contexts, Writer writer) throws IOException {
+            contexts.push(item == null ? MISSING : item);
+            try {
+                renderChildren(contexts, writer);
+            } finally {
+                contexts.pop();
+            }
+        }
+
+        private void renderChildren(Deque<Object> contexts, Writer writer) throws IOException {
+            for (Node child : children) {
+                child.render(contexts, writer);
+            }
+        }
+    }
+
+    private static final class CompiledTemplate {
+
+        private final Node root;
+        private final long lastModified;
+
+        CompiledTemplate(Node root, long lastModified) {
+            this.root = root;
+            this.lastModified = lastModified;
+        }
+    }
+}
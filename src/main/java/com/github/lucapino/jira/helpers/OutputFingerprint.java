@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Up-to-date check of generated files. The fingerprint of everything the
+ * files are generated from is stored once they are written; while the
+ * fingerprint stays the same and the files exist, they need not be
+ * generated again.
+ *
+ * @author Luca Tagliani
+ */
+public final class OutputFingerprint {
+
+    private static final String UTF_8 = "UTF-8";
+
+    private OutputFingerprint() {
+    }
+
+    /**
+     * Hashes the content of an input file.
+     *
+     * @param file the file, may be <code>null</code>
+     * @return the hex encoded SHA-1 digest of the content, or
+     * <code>none</code> if there is no such file
+     * @throws IOException if the file cannot be read
+     */
+    public static String hash(File file) throws IOException {
+        if (file == null || !file.isFile()) {
+            return "none";
+        }
+        return IssuesSnapshot.fingerprint(FileUtils.readFileToString(file, UTF_8));
+    }
+
+    /**
+     * @param fingerprintFile the file storing the fingerprint of the outputs
+     * @param fingerprint the fingerprint of the current inputs
+     * @param outputs the generated files
+     * @return <code>true</code> if the outputs exist and were generated from
+     * the same inputs
+     * @throws IOException if the stored fingerprint cannot be read
+     */
+    public static boolean isUpToDate(File fingerprintFile, String fingerprint, Collection<File> outputs) throws IOException {
+        if (!fingerprintFile.isFile()) {
+            return false;
+        }
+        for (File output : outputs) {
+            if (!output.isFile()) {
+                return false;
+            }
+        }
+        return fingerprint.equals(FileUtils.readFileToString(fingerprintFile, UTF_8).trim());
+    }
+
+    /**
+     * Forgets the stored fingerprint, before the outputs are generated again,
+     * so that outputs left half written are not taken as up to date.
+     *
+     * @param fingerprintFile the file storing the fingerprint of the outputs
+     */
+    public static void clear(File fingerprintFile) {
+        FileUtils.deleteQuietly(fingerprintFile);
+    }
+
+    /**
+     * Stores the fingerprint of the inputs of the generated outputs.
+     *
+     * @param fingerprintFile the file storing the fingerprint of the outputs
+     * @param fingerprint the fingerprint of the inputs
+     * @throws IOException if the fingerprint cannot be written
+     */
+    public static void store(File fingerprintFile, String fingerprint) throws IOException {
+        FileUtils.writeStringToFile(fingerprintFile, fingerprint, UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a batch of tasks on a bounded pool of worker threads.
+ *
+ * @author Luca Tagliani
+ */
+public class ParallelExecutor {
+
+    private ParallelExecutor() {
+    }
+
+    /**
+     * Runs all the tasks, at most <code>parallelism</code> at a time, and
+     * waits for them to complete.
+     *
+     * @param <T> the result type
+     * @param tasks the tasks to run
+     * @param parallelism the maximum number of tasks running at once
+     * @return the results, in the same order of the tasks
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if a task threw an exception
+     */
+    public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks, int parallelism) throws InterruptedException, ExecutionException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.isEmpty()) {
+            return results;
+        }
+        int threads = Math.max(1, Math.min(parallelism, tasks.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+        private final int pool = POOL_COUNTER.incrementAndGet();
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jira-worker-" + pool + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -117,7 +117,9 @@ public class ProjectJavamailMailSender
                 };
             }
 
-            Session session = Session.getDefaultInstance(props, auth);
+            // not the JVM wide default session, which keeps the settings of
+            // the first build thread sending a mail
+            Session session = Session.getInstance(props, auth);
 
             session.setDebug(getLogger().isDebugEnabled());
 
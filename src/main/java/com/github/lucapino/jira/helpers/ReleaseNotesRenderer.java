@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.JiraIssue;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Compiled form of the bundled <code>releaseNotes.vm</code> template: renders
+ * the same JIRA wiki markup with plain method calls, without going through
+ * Velocity.
+ * <p>
+ * The plugin no longer renders <code>releaseNotes.vm</code>: the template
+ * only documents the default notes, as a starting point for custom
+ * templates. Keep the two in sync; <code>ReleaseNotesRendererTest</code>,
+ * part of the unit tests, checks both produce the same notes. As with any
+ * Velocity reference, a missing project name or release version is rendered
+ * as the reference itself; missing issue fields are rendered empty.
+ * </p>
+ *
+ * @author Luca Tagliani
+ */
+public final class ReleaseNotesRenderer {
+
+    /**
+     * Size above which the rendered text is flushed to the writer.
+     */
+    private static final int FLUSH_SIZE = 8192;
+
+    private ReleaseNotesRenderer() {
+    }
+
+    /**
+     * Renders the release notes.
+     *
+     * @param projectName the project name
+     * @param releaseVersion the released version
+     * @param issues the issues fixed in the release
+     * @param writer the writer receiving the notes
+     * @throws IOException if the notes cannot be written
+     */
+    public static void render(String projectName, String releaseVersion, List<JiraIssue> issues, Writer writer) throws IOException {
+        StringBuilder sb = new StringBuilder(FLUSH_SIZE + 512);
+        sb.append("\n\nh1. Release notes for ")
+                .append(projectName == null ? "${project.name}" : projectName)
+                .append(" version ")
+                .append(releaseVersion == null ? "${releaseVersion}" : releaseVersion)
+                .append("\n\nIn this release we fix the following issues\n\n")
+                .append("||Issue||Type||Reporter||Summary||\n");
+        for (JiraIssue issue : issues) {
+            sb.append("| [");
+            append(sb, issue.getKey());
+            sb.append('|');
+            append(sb, issue.getLink());
+            sb.append("] | ");
+            append(sb, issue.getType());
+            sb.append(" | ");
+            append(sb, issue.getReporter());
+            sb.append(" | ");
+            appendEscaped(sb, issue.getSummary());
+            sb.append(" |\n");
+            if (sb.length() > FLUSH_SIZE) {
+                writer.append(sb);
+                sb.setLength(0);
+            }
+        }
+        writer.append(sb);
+    }
+
+    private static void append(StringBuilder sb, String value) {
+        if (value != null) {
+            sb.append(value);
+        }
+    }
+
+    /**
+     * Appends the value escaping the square brackets, which are links in
+     * wiki markup.
+     */
+    private static void appendEscaped(StringBuilder sb, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '[' || c == ']') {
+                    sb.append('\\');
+                }
+                sb.append(c);
+            }
+        }
+    }
+}
@@ -17,17 +17,32 @@
 package com.github.lucapino.jira.helpers;
 
 import com.atlassian.jira.rest.client.api.domain.Version;
-import static com.github.lucapino.jira.helpers.RemoteVersionComparator.doComparison;
 import java.util.Comparator;
 
+/**
+ * Sorts versions from the latest to the oldest, according to a
+ * {@link VersionOrdering}.
+ */
 public class RemoteVersionComparator implements Comparator<Version> {
 
+    static final VersionOrdering DEFAULT_ORDERING = new VersionOrdering();
+
+    private final VersionOrdering ordering;
+
+    public RemoteVersionComparator() {
+        this(DEFAULT_ORDERING);
+    }
+
+    public RemoteVersionComparator(VersionOrdering ordering) {
+        this.ordering = ordering;
+    }
+
     @Override
     public int compare(Version o1, Version o2) {
-        return doComparison(o1, o2);
+        return ordering.compare(o2.getName(), o1.getName());
     }
 
     public static int doComparison(Version o1, Version o2) {
-        return -1 * o1.getName().compareToIgnoreCase(o2.getName());
+        return DEFAULT_ORDERING.compare(o2.getName(), o1.getName());
     }
 }
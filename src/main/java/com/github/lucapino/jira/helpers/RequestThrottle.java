@@ -0,0 +1,61 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side rate limit shared by all the threads issuing JIRA requests.
+ *
+ * @author Luca Tagliani
+ */
+public class RequestThrottle {
+
+    private final long intervalNanos;
+    private long nextSlot;
+
+    /**
+     * @param maxRequestsPerSecond the maximum number of requests per second,
+     * 0 or less for no limit
+     */
+    public RequestThrottle(int maxRequestsPerSecond) {
+        this.intervalNanos = maxRequestsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxRequestsPerSecond : 0;
+        this.nextSlot = System.nanoTime();
+    }
+
+    /**
+     * Blocks until the next request may be sent.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (nextSlot < now) {
+                nextSlot = now;
+            }
+            wait = nextSlot - now;
+            nextSlot += intervalNanos;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
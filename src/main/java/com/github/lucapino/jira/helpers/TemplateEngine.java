@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders template files. Besides the built-in engines, implementations
+ * listed in <code>META-INF/services/com.github.lucapino.jira.helpers.TemplateEngine</code>
+ * of a plugin dependency are available too.
+ *
+ * @author Luca Tagliani
+ * @see TemplateEngines
+ */
+public interface TemplateEngine {
+
+    /**
+     * @return the name used to select the engine
+     */
+    String getName();
+
+    /**
+     * @return the extensions of the template files rendered by default with
+     * this engine, without the dot
+     */
+    List<String> getExtensions();
+
+    /**
+     * Renders a template. Implementations must be thread safe.
+     *
+     * @param template the template file
+     * @param parameters the template parameters; <code>project</code> is the
+     * Maven project
+     * @param writer the writer receiving the output
+     * @throws IOException if the template cannot be read or the output
+     * written
+     */
+    void render(File template, Map<String, Object> parameters, Writer writer) throws IOException;
+}
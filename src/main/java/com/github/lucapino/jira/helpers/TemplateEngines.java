@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+
+/**
+ * Looks up the {@link TemplateEngine} rendering a template.
+ *
+ * @author Luca Tagliani
+ */
+public class TemplateEngines {
+
+    /**
+     * Engine used when neither the name nor the extension select one.
+     */
+    public static final String DEFAULT_ENGINE = "velocity";
+
+    private static final List<TemplateEngine> BUILT_IN = Collections.unmodifiableList(Arrays.<TemplateEngine>asList(
+            new VelocityTemplateEngine(), new MustacheTemplateEngine()));
+
+    private TemplateEngines() {
+    }
+
+    /**
+     * Returns the engine with the given name or, if no name is given, the
+     * engine handling the extension of the template file.
+     *
+     * @param name the engine name, may be <code>null</code>
+     * @param template the template file
+     * @return the engine
+     * @throws IllegalArgumentException if there is no engine with the given
+     * name
+     */
+    public static TemplateEngine get(String name, File template) {
+        List<TemplateEngine> engines = getEngines();
+        if (name != null) {
+            for (TemplateEngine engine : engines) {
+                if (engine.getName().equalsIgnoreCase(name)) {
+                    return engine;
+                }
+            }
+            throw new IllegalArgumentException("Unknown template engine '" + name + "'");
+        }
+        String fileName = template.getName();
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ENGLISH);
+        for (TemplateEngine engine : engines) {
+            if (engine.getExtensions().contains(extension)) {
+                return engine;
+            }
+        }
+        return get(DEFAULT_ENGINE, template);
+    }
+
+    private static List<TemplateEngine> getEngines() {
+        List<TemplateEngine> engines = new ArrayList<>(BUILT_IN);
+        for (TemplateEngine engine : ServiceLoader.load(TemplateEngine.class)) {
+            engines.add(engine);
+        }
+        return engines;
+    }
+}
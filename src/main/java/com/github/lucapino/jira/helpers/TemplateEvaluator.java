@@ -16,53 +16,205 @@
  */
 package com.github.lucapino.jira.helpers;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.io.StringWriter;
-import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.project.MavenProject;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.context.AbstractContext;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.runtime.RuntimeInstance;
+import org.apache.velocity.runtime.parser.ParseException;
 
 public class TemplateEvaluator {
 
-    private final VelocityEngine engine = new VelocityEngine();
-    private final VelocityContext context = new VelocityContext();
+    /**
+     * Velocity runtime shared by all the evaluators, so that the modules of a
+     * build share the parsed templates.
+     */
+    private static final RuntimeInstance RUNTIME = createRuntime();
+    /**
+     * Parsed templates, by canonical path.
+     */
+    private static final ConcurrentMap<String, CachedTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    /**
+     * Read-only layer exposing the project and its properties, below the
+     * context of each evaluation.
+     */
+    private final Context projectContext;
 
     public TemplateEvaluator(MavenProject project) {
-        if (project != null) {
-            context.put("project", project);
-            for (Entry<Object, Object> p : project.getProperties().entrySet()) {
-                context.put(p.getKey().toString(), p.getValue());
-            }
-        }
+        projectContext = project == null ? null : new ProjectContext(project);
     }
 
-    public String evaluate(File file, HashMap<Object, Object> properties) throws FileNotFoundException, UnsupportedEncodingException {
-        FileInputStream fis = new FileInputStream(file); 
-        InputStreamReader reader = new InputStreamReader(fis, "UTF-8");
+    public String evaluate(File file, HashMap<Object, Object> properties) throws IOException {
         StringWriter writer = new StringWriter();
+        evaluate(file, properties, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Evaluates a template file, streaming the result.
+     *
+     * @param file the template file
+     * @param properties the template parameters
+     * @param writer the writer receiving the evaluated template
+     * @throws IOException if the template cannot be read
+     */
+    public void evaluate(File file, HashMap<Object, Object> properties, Writer writer) throws IOException {
+        merge(getTemplate(file), properties, writer);
+    }
+
+    private void merge(Template template, HashMap<Object, Object> properties, Writer writer) {
+        template.merge(createContext(properties), writer);
+    }
+
+    /**
+     * Creates the context of a single evaluation: the evaluation parameters,
+     * and anything the template sets, stay in it and never reach the project
+     * layer, so evaluations do not see each other and can run concurrently.
+     */
+    private VelocityContext createContext(HashMap<Object, Object> properties) {
+        VelocityContext context = new VelocityContext(new HashMap<String, Object>(), projectContext);
         if (properties != null) {
             for (Entry<Object, Object> p : properties.entrySet()) {
                 context.put(p.getKey().toString(), p.getValue());
             }
         }
-        engine.evaluate(context, writer, "[Jira]", reader);
-        return writer.toString();
+        return context;
     }
 
     public String evaluate(String text, HashMap<Object, Object> properties) {
         StringWriter writer = new StringWriter();
-        if (properties != null) {
-            for (Entry<Object, Object> p : properties.entrySet()) {
-                context.put(p.getKey().toString(), p.getValue());
+        RUNTIME.evaluate(createContext(properties), writer, "[Jira]", new StringReader(text));
+        return writer.toString();
+    }
+
+    /**
+     * Returns the parsed template, parsing the file only if it was not parsed
+     * yet or if it changed since. The file is only read when its modification
+     * time or length changed, and only parsed again when its content did.
+     *
+     * @param file the template file
+     * @return the parsed template
+     * @throws IOException if the file cannot be read
+     */
+    static Template getTemplate(File file) throws IOException {
+        File canonicalFile = file.getCanonicalFile();
+        String path = canonicalFile.getPath();
+        long lastModified = canonicalFile.lastModified();
+        long length = canonicalFile.length();
+        CachedTemplate cached = TEMPLATES.get(path);
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached.template;
+        }
+        byte[] content = FileUtils.readFileToByteArray(canonicalFile);
+        String digest = digest(content);
+        if (cached != null && cached.digest.equals(digest)) {
+            // touched, not changed
+            cached = new CachedTemplate(lastModified, length, digest, cached.template);
+            TEMPLATES.put(path, cached);
+        } else {
+            Template template = new Template();
+            template.setRuntimeServices(RUNTIME);
+            template.setName(path);
+            try {
+                template.setData(RUNTIME.parse(new InputStreamReader(new ByteArrayInputStream(content), "UTF-8"), path));
+            } catch (ParseException e) {
+                throw new ParseErrorException(e);
             }
+            template.initDocument();
+            cached = new CachedTemplate(lastModified, length, digest, template);
+            TEMPLATES.put(path, cached);
+        }
+        return cached.template;
+    }
+
+    private static String digest(byte[] content) {
+        try {
+            return new BigInteger(1, MessageDigest.getInstance("SHA-1").digest(content)).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RuntimeInstance createRuntime() {
+        RuntimeInstance runtime = new RuntimeInstance();
+        runtime.init();
+        return runtime;
+    }
+
+    /**
+     * Reads the project properties through, without copying them.
+     */
+    private static class ProjectContext extends AbstractContext {
+
+        private final MavenProject project;
+        private final Properties properties;
+
+        ProjectContext(MavenProject project) {
+            this.project = project;
+            this.properties = project.getProperties();
+        }
+
+        @Override
+        public Object internalGet(String key) {
+            return "project".equals(key) ? project : properties.get(key);
+        }
+
+        @Override
+        public Object internalPut(String key, Object value) {
+            throw new UnsupportedOperationException("The project context is read-only");
+        }
+
+        @Override
+        public boolean internalContainsKey(Object key) {
+            return "project".equals(key) || properties.containsKey(key);
+        }
+
+        @Override
+        public Object[] internalGetKeys() {
+            List<Object> keys = new ArrayList<>(properties.keySet());
+            keys.add("project");
+            return keys.toArray();
+        }
+
+        @Override
+        public Object internalRemove(Object key) {
+            throw new UnsupportedOperationException("The project context is read-only");
+        }
+    }
+
+    private static class CachedTemplate {
+
+        private final long lastModified;
+        private final long length;
+        private final String digest;
+        private final Template template;
+
+        CachedTemplate(long lastModified, long length, String digest, Template template) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.digest = digest;
+            this.template = template;
         }
-        engine.evaluate(context, writer, "[Jira]", text);
-        return writer.toString();
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.atlassian.jira.rest.client.api.domain.Transition;
+import com.github.lucapino.jira.model.JiraIssue;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the transition ids available to issues. Issues sharing project,
+ * issue type and status follow the same workflow step, so they share the same
+ * transitions.
+ *
+ * @author Luca Tagliani
+ */
+public class TransitionIdCache {
+
+    private final ConcurrentMap<String, Map<String, Integer>> transitions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the transitions available to the issue, by name.
+     *
+     * @param issue the issue
+     * @return the transition ids by name, or <code>null</code> on cache miss
+     */
+    public Map<String, Integer> get(JiraIssue issue) {
+        return transitions.get(cacheKey(issue));
+    }
+
+    /**
+     * Stores the transitions returned by JIRA for the issue.
+     *
+     * @param issue the issue
+     * @param remoteTransitions the transitions available to the issue
+     * @return the transition ids by name
+     */
+    public Map<String, Integer> put(JiraIssue issue, Iterable<Transition> remoteTransitions) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (remoteTransitions != null) {
+            for (Transition remoteTransition : remoteTransitions) {
+                ids.put(remoteTransition.getName(), remoteTransition.getId());
+            }
+        }
+        ids = Collections.unmodifiableMap(ids);
+        transitions.put(cacheKey(issue), ids);
+        return ids;
+    }
+
+    /**
+     * Forgets the transitions cached for the workflow step of the issue.
+     *
+     * @param issue the issue
+     */
+    public void invalidate(JiraIssue issue) {
+        transitions.remove(cacheKey(issue));
+    }
+
+    private static String cacheKey(JiraIssue issue) {
+        return issue.getProjectKey() + '\u0000' + issue.getType() + '\u0000' + issue.getStatus();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Write-ahead journal of a bulk transition. Each transition is logged before
+ * it is sent and once it succeeded, so a new run of the same operation skips
+ * the issues already transitioned.
+ * <p>
+ * An issue with a transition logged as started but not as completed is in
+ * doubt: the run may have stopped before or after JIRA took the transition.
+ * The journal keeps the status the issue was in, so the new run can compare
+ * it with the current status of the issue.
+ * </p>
+ * <p>
+ * The first line identifies the operation; a journal written for another
+ * operation is discarded when the journal is started.
+ * </p>
+ *
+ * @author Luca Tagliani
+ */
+public class TransitionJournal implements Closeable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String HEADER = "# transition-journal ";
+    private static final String STARTED = "STARTED";
+    private static final String COMPLETED = "COMPLETED";
+
+    private final File file;
+    private final String operation;
+    private final Set<String> completed = Collections.synchronizedSet(new HashSet<String>());
+    private final Map<String, String> inDoubt = new HashMap<>();
+    private final Object forceLock = new Object();
+    private FileChannel channel;
+    // entries written, guarded by this
+    private long written;
+    // entries known to be on disk, guarded by forceLock
+    private long forced;
+
+    /**
+     * Reads the journal, if it exists and belongs to the operation.
+     *
+     * @param file the journal file
+     * @param operation the operation identifier
+     * @throws IOException if the journal cannot be read
+     */
+    public TransitionJournal(File file, String operation) throws IOException {
+        this.file = file;
+        this.operation = operation;
+        if (file.isFile()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+            try {
+                String line = reader.readLine();
+                if ((HEADER + operation).equals(line)) {
+                    while ((line = reader.readLine()) != null) {
+                        String[] entry = line.split("\t");
+                        if (entry.length >= 4 && STARTED.equals(entry[0])) {
+                            inDoubt.put(entry[1], entry[3]);
+                        } else if (entry.length >= 2 && COMPLETED.equals(entry[0])) {
+                            completed.add(entry[1]);
+                            inDoubt.remove(entry[1]);
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * @param key the issue key
+     * @return <code>true</code> if a previous run already transitioned the
+     * issue
+     */
+    public boolean isCompleted(String key) {
+        return completed.contains(key);
+    }
+
+    public int getCompletedCount() {
+        return completed.size();
+    }
+
+    /**
+     * @param key the issue key
+     * @return <code>true</code> if a previous run sent a transition of the
+     * issue without knowing if JIRA took it
+     */
+    public boolean isInDoubt(String key) {
+        return inDoubt.containsKey(key);
+    }
+
+    /**
+     * @param key the issue key
+     * @return the status the issue was in when the transition in doubt was
+     * sent, <code>null</code> if the issue is not in doubt
+     */
+    public String getInDoubtStatus(String key) {
+        return inDoubt.get(key);
+    }
+
+    public int getInDoubtCount() {
+        return inDoubt.size();
+    }
+
+    /**
+     * Opens the journal for writing, keeping the entries of a previous run of
+     * the same operation.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    public synchronized void start() throws IOException {
+        boolean resume = !completed.isEmpty() || !inDoubt.isEmpty();
+        FileUtils.forceMkdir(file.getAbsoluteFile().getParentFile());
+        channel = new FileOutputStream(file, resume).getChannel();
+        if (!resume) {
+            append(HEADER + operation);
+        }
+    }
+
+    /**
+     * Logs a transition about to be sent.
+     *
+     * @param key the issue key
+     * @param transitionId the transition id
+     * @param status the status of the issue before the transition
+     * @throws IOException if the entry cannot be written
+     */
+    public void started(String key, int transitionId, String status) throws IOException {
+        append(STARTED + '\t' + key + '\t' + transitionId + '\t' + status);
+    }
+
+    /**
+     * Logs a transition accepted by JIRA. The entry, and all the entries
+     * written before it, are on disk when the method returns.
+     *
+     * @param key the issue key
+     * @param transitionId the transition id
+     * @throws IOException if the entry cannot be written
+     */
+    public void completed(String key, int transitionId) throws IOException {
+        force(append(COMPLETED + '\t' + key + '\t' + transitionId));
+        completed.add(key);
+    }
+
+    /**
+     * Removes the journal once the whole operation completed.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    public void delete() throws IOException {
+        close();
+        FileUtils.deleteQuietly(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * @return the number of the entry
+     */
+    private synchronized long append(String line) throws IOException {
+        channel.write(ByteBuffer.wrap((line + '\n').getBytes(UTF_8)));
+        return ++written;
+    }
+
+    /**
+     * Forces the entries to disk up to the given one. Other workers keep
+     * appending during the force, and the workers waiting for it are covered
+     * by a single force when their entries were written before it started.
+     * Started entries are not forced on their own: losing one only means the
+     * issue is not in doubt when the run resumes.
+     */
+    private void force(long entry) throws IOException {
+        synchronized (forceLock) {
+            if (forced >= entry) {
+                return;
+            }
+            FileChannel forcedChannel;
+            long last;
+            synchronized (this) {
+                forcedChannel = channel;
+                last = written;
+            }
+            forcedChannel.force(false);
+            forced = last;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Renders Velocity templates through {@link TemplateEvaluator}.
+ *
+ * @author Luca Tagliani
+ */
+public class VelocityTemplateEngine implements TemplateEngine {
+
+    @Override
+    public String getName() {
+        return "velocity";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return Arrays.asList("vm", "vtl");
+    }
+
+    @Override
+    public void render(File template, Map<String, Object> parameters, Writer writer) throws IOException {
+        // the evaluator only wraps the project, no copy is made
+        TemplateEvaluator evaluator = new TemplateEvaluator((MavenProject) parameters.get("project"));
+        evaluator.evaluate(template, new HashMap<Object, Object>(parameters), writer);
+    }
+}
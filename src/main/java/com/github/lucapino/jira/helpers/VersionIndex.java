@@ -0,0 +1,206 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.atlassian.jira.rest.client.api.domain.Version;
+import com.atlassian.jira.rest.client.internal.json.VersionJsonParser;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * Index over the versions of a JIRA project: versions are looked up by name
+ * ignoring case, and are available sorted by release date and by version.
+ * The sorted views are built on first use and dropped when a version is
+ * added or updated.
+ *
+ * @author Luca Tagliani
+ */
+public class VersionIndex {
+
+    private static final int PAGE_SIZE = 200;
+
+    private static final Comparator<Version> RELEASE_DATE_COMPARATOR = new Comparator<Version>() {
+        @Override
+        public int compare(Version o1, Version o2) {
+            // versions without a release date go last
+            if (o1.getReleaseDate() == null) {
+                return o2.getReleaseDate() == null ? 0 : 1;
+            }
+            if (o2.getReleaseDate() == null) {
+                return -1;
+            }
+            return o1.getReleaseDate().compareTo(o2.getReleaseDate());
+        }
+    };
+
+    private final String projectKey;
+    private final Map<String, Version> versionsByName = new LinkedHashMap<>();
+    private List<Version> versionsByReleaseDate;
+    /**
+     * The versions sorted by each ordering used so far.
+     */
+    private final Map<VersionOrdering, List<Version>> sortedVersions = new HashMap<>();
+
+    public VersionIndex(String projectKey, List<Version> versions) {
+        this.projectKey = projectKey;
+        for (Version version : versions) {
+            versionsByName.put(normalize(version.getName()), version);
+        }
+    }
+
+    /**
+     * Downloads the versions of the project from the paged project versions
+     * resource.
+     *
+     * @param client the JIRA client
+     * @param projectKey the project key
+     * @return the index of the project versions
+     * @throws IOException if the versions cannot be downloaded
+     */
+    public static VersionIndex load(JiraClient client, String projectKey) throws IOException {
+        VersionJsonParser parser = new VersionJsonParser();
+        List<Version> versions = new ArrayList<>();
+        Map<String, String> query = new HashMap<>();
+        query.put("maxResults", String.valueOf(PAGE_SIZE));
+        try {
+            boolean last = false;
+            while (!last) {
+                query.put("startAt", String.valueOf(versions.size()));
+                JSONObject page = client.getJson(client.getRestUri("project/" + projectKey + "/version", query));
+                JSONArray values = page.getJSONArray("values");
+                for (int i = 0; i < values.length(); i++) {
+                    versions.add(parser.parse(values.getJSONObject(i)));
+                }
+                last = values.length() == 0 || page.optBoolean("isLast", versions.size() >= page.optInt("total"));
+            }
+        } catch (JSONException e) {
+            throw new IOException("Invalid versions of project " + projectKey, e);
+        }
+        return new VersionIndex(projectKey, versions);
+    }
+
+    /**
+     * Downloads the versions of the project in a single request, from the
+     * unpaged project versions resource. Cheaper than {@link #load} when all
+     * the versions are needed anyway.
+     *
+     * @param client the JIRA client
+     * @param projectKey the project key
+     * @return the index of the project versions
+     * @throws IOException if the versions cannot be downloaded
+     */
+    public static VersionIndex loadAll(JiraClient client, String projectKey) throws IOException {
+        VersionJsonParser parser = new VersionJsonParser();
+        List<Version> versions = new ArrayList<>();
+        try {
+            JSONArray values = client.getJsonArray(client.getRestUri("project/" + projectKey + "/versions", null));
+            for (int i = 0; i < values.length(); i++) {
+                versions.add(parser.parse(values.getJSONObject(i)));
+            }
+        } catch (JSONException e) {
+            throw new IOException("Invalid versions of project " + projectKey, e);
+        }
+        return new VersionIndex(projectKey, versions);
+    }
+
+    public String getProjectKey() {
+        return projectKey;
+    }
+
+    /**
+     * @param name the version name
+     * @return the version with the given name, ignoring case, or
+     * <code>null</code>
+     */
+    public synchronized Version get(String name) {
+        return name == null ? null : versionsByName.get(normalize(name));
+    }
+
+    public boolean contains(String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * Adds a version, or replaces the one with the same name, after it was
+     * created or updated in JIRA.
+     *
+     * @param version the version
+     */
+    public synchronized void put(Version version) {
+        versionsByName.put(normalize(version.getName()), version);
+        versionsByReleaseDate = null;
+        sortedVersions.clear();
+    }
+
+    /**
+     * @return the versions, in the order JIRA lists them
+     */
+    public synchronized List<Version> getVersions() {
+        return Collections.unmodifiableList(new ArrayList<>(versionsByName.values()));
+    }
+
+    /**
+     * @return the versions sorted by release date, versions without a
+     * release date last
+     */
+    public synchronized List<Version> getVersionsByReleaseDate() {
+        if (versionsByReleaseDate == null) {
+            versionsByReleaseDate = sort(RELEASE_DATE_COMPARATOR);
+        }
+        return versionsByReleaseDate;
+    }
+
+    /**
+     * @return the versions sorted from the latest to the oldest
+     */
+    public List<Version> getSortedVersions() {
+        return getSortedVersions(RemoteVersionComparator.DEFAULT_ORDERING);
+    }
+
+    /**
+     * @param ordering the ordering of the version names
+     * @return the versions sorted from the latest to the oldest by the
+     * ordering
+     */
+    public synchronized List<Version> getSortedVersions(VersionOrdering ordering) {
+        List<Version> versions = sortedVersions.get(ordering);
+        if (versions == null) {
+            versions = sort(new RemoteVersionComparator(ordering));
+            sortedVersions.put(ordering, versions);
+        }
+        return versions;
+    }
+
+    private List<Version> sort(Comparator<Version> comparator) {
+        List<Version> versions = new ArrayList<>(versionsByName.values());
+        Collections.sort(versions, comparator);
+        return Collections.unmodifiableList(versions);
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Orders version names semantically: <code>10.0</code> comes after
+ * <code>9.0</code>, <code>1.0.RC1</code> before <code>1.0.Final</code> and
+ * <code>1.0.SR1</code> after it.
+ * <p>
+ * Each name is parsed once into its numeric segments and qualifier, and the
+ * parsed forms of the names used last are cached. An optional pattern
+ * extracts the version part from names like <code>Release 1.2</code>: its
+ * first group, or the whole match if it has no groups. Names the pattern does
+ * not match come before all the others. Orderings built from the same pattern
+ * and qualifiers are equal.
+ * </p>
+ *
+ * @author Luca Tagliani
+ */
+public class VersionOrdering implements Comparator<String> {
+
+    /**
+     * Qualifiers in release order, aliases joined by <code>=</code>. The empty
+     * qualifier is a plain release; unknown qualifiers come after all of
+     * these.
+     */
+    public static final String DEFAULT_QUALIFIERS = "alpha=a,beta=b,milestone=m,rc=cr,snapshot,=final=ga=release,sp=sr";
+
+    private static final Pattern TOKEN = Pattern.compile("\\d+|[^\\d\\s._-]+");
+    /**
+     * Max number of parsed names kept. An ordering may live as long as the
+     * JVM, e.g. in a Maven daemon, so the cache must not grow with every name
+     * ever compared.
+     */
+    private static final int MAX_KEYS = 1024;
+
+    private final Pattern pattern;
+    private final String qualifiers;
+    private final Map<String, Integer> qualifierRanks = new HashMap<>();
+    private final int unknownQualifierRank;
+    private final Map<String, VersionKey> keys = new LinkedHashMap<String, VersionKey>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VersionKey> eldest) {
+            return size() > MAX_KEYS;
+        }
+    };
+
+    public VersionOrdering() {
+        this(null, null);
+    }
+
+    /**
+     * @param pattern the pattern extracting the version from the names, may
+     * be <code>null</code>
+     * @param qualifiers the comma separated qualifiers in release order,
+     * <code>null</code> for {@link #DEFAULT_QUALIFIERS}
+     */
+    public VersionOrdering(String pattern, String qualifiers) {
+        this.pattern = pattern == null ? null : Pattern.compile(pattern);
+        this.qualifiers = qualifiers == null ? DEFAULT_QUALIFIERS : qualifiers;
+        int rank = 0;
+        for (String qualifier : this.qualifiers.split(",", -1)) {
+            for (String alias : qualifier.split("=", -1)) {
+                qualifierRanks.put(alias.trim().toLowerCase(Locale.ENGLISH), rank);
+            }
+            rank++;
+        }
+        if (!qualifierRanks.containsKey("")) {
+            qualifierRanks.put("", rank++);
+        }
+        unknownQualifierRank = rank;
+    }
+
+    @Override
+    public int compare(String o1, String o2) {
+        return getKey(o1).compareTo(getKey(o2));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof VersionOrdering)) {
+            return false;
+        }
+        VersionOrdering other = (VersionOrdering) obj;
+        return Objects.equals(getPattern(), other.getPattern()) && qualifiers.equals(other.qualifiers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getPattern(), qualifiers);
+    }
+
+    private String getPattern() {
+        return pattern == null ? null : pattern.pattern();
+    }
+
+    private VersionKey getKey(String name) {
+        VersionKey key;
+        synchronized (keys) {
+            key = keys.get(name);
+        }
+        if (key == null) {
+            // parsed outside the lock, a name parsed twice gives the same key
+            key = parse(name);
+            synchronized (keys) {
+                keys.put(name, key);
+            }
+        }
+        return key;
+    }
+
+    private VersionKey parse(String name) {
+        String version = name;
+        if (pattern != null) {
+            Matcher matcher = pattern.matcher(name);
+            if (!matcher.find()) {
+                return new VersionKey(name, false, new long[0], 0, "", 0);
+            }
+            version = matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+        }
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(version.toLowerCase(Locale.ENGLISH));
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        int numbers = 0;
+        while (numbers < tokens.size() && isNumber(tokens.get(numbers))) {
+            numbers++;
+        }
+        long[] segments = new long[numbers];
+        for (int i = 0; i < numbers; i++) {
+            segments[i] = parseNumber(tokens.get(i));
+        }
+        String qualifier = numbers < tokens.size() ? tokens.get(numbers) : "";
+        long qualifierNumber = 0;
+        if (numbers + 1 < tokens.size() && isNumber(tokens.get(numbers + 1))) {
+            qualifierNumber = parseNumber(tokens.get(numbers + 1));
+        }
+        Integer rank = qualifierRanks.get(qualifier);
+        if (rank == null) {
+            return new VersionKey(name, true, segments, unknownQualifierRank, qualifier, qualifierNumber);
+        }
+        return new VersionKey(name, true, segments, rank, "", qualifierNumber);
+    }
+
+    private static boolean isNumber(String token) {
+        return Character.isDigit(token.charAt(0));
+    }
+
+    private static long parseNumber(String token) {
+        // longer than a long: keep the order, lose the precision
+        return token.length() > 18 ? Long.MAX_VALUE : Long.parseLong(token);
+    }
+
+    private static final class VersionKey implements Comparable<VersionKey> {
+
+        private final String name;
+        private final boolean matching;
+        private final long[] segments;
+        private final int qualifierRank;
+        private final String qualifier;
+        private final long qualifierNumber;
+
+        VersionKey(String name, boolean matching, long[] segments, int qualifierRank, String qualifier, long qualifierNumber) {
+            this.name = name;
+            this.matching = matching;
+            this.segments = segments;
+            this.qualifierRank = qualifierRank;
+            this.qualifier = qualifier;
+            this.qualifierNumber = qualifierNumber;
+        }
+
+        @Override
+        public int compareTo(VersionKey other) {
+            if (matching != other.matching) {
+                return matching ? 1 : -1;
+            }
+            // missing segments count as 0, so 1.0 and 1.0.0 are the same
+            int length = Math.max(segments.length, other.segments.length);
+            for (int i = 0; i < length; i++) {
+                long segment = i < segments.length ? segments[i] : 0;
+                long otherSegment = i < other.segments.length ? other.segments[i] : 0;
+                if (segment != otherSegment) {
+                    return segment < otherSegment ? -1 : 1;
+                }
+            }
+            if (qualifierRank != other.qualifierRank) {
+                return qualifierRank < other.qualifierRank ? -1 : 1;
+            }
+            int result = qualifier.compareTo(other.qualifier);
+            if (result != 0) {
+                return result;
+            }
+            if (qualifierNumber != other.qualifierNumber) {
+                return qualifierNumber < other.qualifierNumber ? -1 : 1;
+            }
+            return name.compareToIgnoreCase(other.name);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.WorkflowTransition;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Workflow graphs learned from the transitions JIRA returns, one per project
+ * and issue type. Nodes are statuses and edges are transitions.
+ * <p>
+ * A status is explored once the transitions of an issue in that status are
+ * known. Paths are searched breadth first on the explored part of the graph.
+ * </p>
+ *
+ * @author Luca Tagliani
+ */
+public class WorkflowGraph {
+
+    private final ConcurrentMap<String, ConcurrentMap<String, List<WorkflowTransition>>> graphs = new ConcurrentHashMap<>();
+
+    /**
+     * Records the transitions available from a status.
+     *
+     * @param project the project key
+     * @param issueType the issue type
+     * @param status the status the transitions start from
+     * @param transitions the transitions available from the status
+     */
+    public void learn(String project, String issueType, String status, List<WorkflowTransition> transitions) {
+        graph(project, issueType).put(normalize(status), Collections.unmodifiableList(new ArrayList<>(transitions)));
+    }
+
+    /**
+     * @param project the project key
+     * @param issueType the issue type
+     * @param status the status
+     * @return the transitions available from the status, or <code>null</code>
+     * if the status is not explored yet
+     */
+    public List<WorkflowTransition> getTransitions(String project, String issueType, String status) {
+        return graph(project, issueType).get(normalize(status));
+    }
+
+    /**
+     * Finds the shortest known path between two statuses. If the target is
+     * not reachable on the explored part of the graph, returns the shortest
+     * path to a status not explored yet, to be explored once reached.
+     *
+     * @param project the project key
+     * @param issueType the issue type
+     * @param from the current status, which must be explored
+     * @param to the target status
+     * @return the transitions to take, empty if <code>from</code> is the
+     * target, or <code>null</code> if neither the target nor an unexplored
+     * status can be reached
+     */
+    public List<WorkflowTransition> findPath(String project, String issueType, String from, String to) {
+        Map<String, List<WorkflowTransition>> graph = graph(project, issueType);
+        String start = normalize(from);
+        String target = normalize(to);
+        Map<String, WorkflowTransition> reachedBy = new HashMap<>();
+        Map<String, String> previous = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(start);
+        previous.put(start, null);
+        String frontier = null;
+        while (!queue.isEmpty()) {
+            String status = queue.poll();
+            if (status.equals(target)) {
+                return path(status, reachedBy, previous);
+            }
+            List<WorkflowTransition> transitions = graph.get(status);
+            if (transitions == null) {
+                // unexplored: keep the nearest one in case the target is not reachable
+                if (frontier == null) {
+                    frontier = status;
+                }
+                continue;
+            }
+            for (WorkflowTransition transition : transitions) {
+                if (transition.getTargetStatus() == null) {
+                    continue;
+                }
+                String next = normalize(transition.getTargetStatus());
+                if (!previous.containsKey(next)) {
+                    previous.put(next, status);
+                    reachedBy.put(next, transition);
+                    queue.add(next);
+                }
+            }
+        }
+        return frontier == null ? null : path(frontier, reachedBy, previous);
+    }
+
+    private static List<WorkflowTransition> path(String end, Map<String, WorkflowTransition> reachedBy, Map<String, String> previous) {
+        List<WorkflowTransition> path = new ArrayList<>();
+        for (String status = end; previous.get(status) != null; status = previous.get(status)) {
+            path.add(reachedBy.get(status));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private ConcurrentMap<String, List<WorkflowTransition>> graph(String project, String issueType) {
+        String key = project + '\u0000' + issueType;
+        ConcurrentMap<String, List<WorkflowTransition>> graph = graphs.get(key);
+        if (graph == null) {
+            graphs.putIfAbsent(key, new ConcurrentHashMap<String, List<WorkflowTransition>>());
+            graph = graphs.get(key);
+        }
+        return graph;
+    }
+
+    private static String normalize(String status) {
+        return status.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.WorkflowTransition;
+import java.util.ArrayList;
+import java.util.List;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * Parses the <code>transitions</code> JSON returned by JIRA, either by the
+ * transitions resource or by a search expanded with <code>transitions</code>.
+ * Unlike the JRJC parser it keeps the status each transition leads to.
+ *
+ * @author Luca Tagliani
+ */
+public class WorkflowTransitionParser {
+
+    private WorkflowTransitionParser() {
+    }
+
+    public static List<WorkflowTransition> parse(JSONArray transitions) throws JSONException {
+        List<WorkflowTransition> result = new ArrayList<>();
+        if (transitions != null) {
+            for (int i = 0; i < transitions.length(); i++) {
+                JSONObject transition = transitions.getJSONObject(i);
+                JSONObject target = transition.optJSONObject("to");
+                String targetStatus = target == null ? null : target.optString("name", null);
+                result.add(new WorkflowTransition(Integer.parseInt(transition.getString("id")), transition.getString("name"), targetStatus));
+            }
+        }
+        return result;
+    }
+}
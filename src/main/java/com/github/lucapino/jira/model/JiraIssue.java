@@ -15,7 +15,6 @@
  */
 package com.github.lucapino.jira.model;
 
-import com.atlassian.jira.rest.client.api.domain.Issue;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -37,11 +36,12 @@ public class JiraIssue {
     private String priority;
     private String reporter;
     private String resolution;
+    private Date resolved;
     private String status;
     private String summary;
     private String type;
     private Date updated;
-    private Issue remoteIssue;
+    private RemoteIssueHandle remoteIssue;
 
     public JiraIssue() {
     }
@@ -111,6 +111,13 @@ public class JiraIssue {
         this.key = key;
     }
 
+    /**
+     * @return the key of the project, taken from the issue key prefix
+     */
+    public String getProjectKey() {
+        return key == null ? null : key.substring(0, key.lastIndexOf('-'));
+    }
+
     public String getLink() {
         return link;
     }
@@ -143,6 +150,14 @@ public class JiraIssue {
         this.resolution = resolution;
     }
 
+    public Date getResolved() {
+        return resolved;
+    }
+
+    public void setResolved(Date resolved) {
+        this.resolved = resolved;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -175,11 +190,11 @@ public class JiraIssue {
         this.updated = updated;
     }
 
-    public Issue getRemoteIssue() {
+    public RemoteIssueHandle getRemoteIssue() {
         return remoteIssue;
     }
 
-    public void setRemoteIssue(Issue remoteIssue) {
+    public void setRemoteIssue(RemoteIssueHandle remoteIssue) {
         this.remoteIssue = remoteIssue;
     }
 
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.model;
+
+import java.io.File;
+
+/**
+ * A release notes file to generate: the template to render and where to
+ * write it.
+ *
+ * @author Luca Tagliani
+ */
+public class ReleaseNotesOutput {
+
+    private File templateFile;
+    private File targetFile;
+    private String templateEngine;
+
+    public ReleaseNotesOutput() {
+    }
+
+    public ReleaseNotesOutput(File templateFile, File targetFile, String templateEngine) {
+        this.templateFile = templateFile;
+        this.targetFile = targetFile;
+        this.templateEngine = templateEngine;
+    }
+
+    /**
+     * @return the template, <code>null</code> for the default one
+     */
+    public File getTemplateFile() {
+        return templateFile;
+    }
+
+    public void setTemplateFile(File templateFile) {
+        this.templateFile = templateFile;
+    }
+
+    public File getTargetFile() {
+        return targetFile;
+    }
+
+    public void setTargetFile(File targetFile) {
+        this.targetFile = targetFile;
+    }
+
+    /**
+     * @return the engine rendering the template, <code>null</code> to choose
+     * it by extension
+     */
+    public String getTemplateEngine() {
+        return templateEngine;
+    }
+
+    public void setTemplateEngine(String templateEngine) {
+        this.templateEngine = templateEngine;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.model;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable reference to a remote JIRA issue, holding just what the write
+ * goals need to address it.
+ *
+ * @author Luca Tagliani
+ */
+public final class RemoteIssueHandle {
+
+    private final Long id;
+    private final String key;
+    private final URI self;
+    private final URI transitionsUri;
+    private final List<WorkflowTransition> transitions;
+
+    public RemoteIssueHandle(Long id, String key, URI self, URI transitionsUri) {
+        this(id, key, self, transitionsUri, null);
+    }
+
+    /**
+     * @param id the issue id
+     * @param key the issue key
+     * @param self the issue URI
+     * @param transitionsUri the issue transitions URI
+     * @param transitions the transitions available to the issue when it was
+     * downloaded, <code>null</code> if they were not requested
+     */
+    public RemoteIssueHandle(Long id, String key, URI self, URI transitionsUri, List<WorkflowTransition> transitions) {
+        this.id = id;
+        this.key = key;
+        this.self = self;
+        this.transitionsUri = transitionsUri;
+        this.transitions = transitions == null ? null : Collections.unmodifiableList(transitions);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public URI getSelf() {
+        return self;
+    }
+
+    public URI getTransitionsUri() {
+        return transitionsUri;
+    }
+
+    /**
+     * @return the transitions available to the issue when it was downloaded,
+     * or <code>null</code> if they were not requested
+     */
+    public List<WorkflowTransition> getTransitions() {
+        return transitions;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.model;
+
+/**
+ * Outcome of a transition attempted on a single issue.
+ *
+ * @author Luca Tagliani
+ */
+public final class TransitionResult {
+
+    public enum Outcome {
+        TRANSITIONED, NOT_AVAILABLE, FAILED
+    }
+
+    private final String key;
+    private final Outcome outcome;
+    private final String message;
+    private final int transitions;
+
+    public TransitionResult(String key, Outcome outcome, String message) {
+        this(key, outcome, message, outcome == Outcome.TRANSITIONED ? 1 : 0);
+    }
+
+    /**
+     * @param key the issue key
+     * @param outcome the outcome
+     * @param message the message, <code>null</code> if there is nothing to
+     * report
+     * @param transitions the number of transitions the issue took
+     */
+    public TransitionResult(String key, Outcome outcome, String message, int transitions) {
+        this.key = key;
+        this.outcome = outcome;
+        this.message = message;
+        this.transitions = transitions;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public int getTransitions() {
+        return transitions;
+    }
+}
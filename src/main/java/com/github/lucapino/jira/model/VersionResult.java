@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.model;
+
+/**
+ * Outcome of an operation on a single JIRA version.
+ *
+ * @author Luca Tagliani
+ */
+public final class VersionResult {
+
+    public enum Outcome {
+        CREATED, RELEASED, UPDATED, UNCHANGED, NOT_FOUND, FAILED
+    }
+
+    private final String projectKey;
+    private final String versionName;
+    private final Outcome outcome;
+    private final String message;
+
+    public VersionResult(String projectKey, String versionName, Outcome outcome, String message) {
+        this.projectKey = projectKey;
+        this.versionName = versionName;
+        this.outcome = outcome;
+        this.message = message;
+    }
+
+    public String getProjectKey() {
+        return projectKey;
+    }
+
+    public String getVersionName() {
+        return versionName;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.model;
+
+/**
+ * A workflow transition available to an issue, with the status it leads to.
+ *
+ * @author Luca Tagliani
+ */
+public final class WorkflowTransition {
+
+    private final int id;
+    private final String name;
+    private final String targetStatus;
+
+    public WorkflowTransition(int id, String name, String targetStatus) {
+        this.id = id;
+        this.name = name;
+        this.targetStatus = targetStatus;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTargetStatus() {
+        return targetStatus;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + id + ") -> " + targetStatus;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira;
+
+import com.github.lucapino.jira.helpers.IssuesDownloader;
+import com.github.lucapino.jira.helpers.JiraClient;
+import com.github.lucapino.jira.model.JiraIssue;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.apache.maven.plugin.MojoFailureException;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Generates the report for several locales, as the site does.
+ */
+public class CreateReportMojoTest {
+
+    private static final Locale[] LOCALES = {Locale.ENGLISH, Locale.FRENCH, Locale.GERMAN};
+    private static final File OUTPUT_DIRECTORY = new File("target/jira/report");
+
+    @Test
+    public void testSinglePageDownloadedOnce() throws Exception {
+        CountingMojo mojo = new CountingMojo(0);
+        for (Locale locale : LOCALES) {
+            mojo.generate(new SinkAdapter(), new PageSinkFactory(), locale);
+        }
+        assertEquals(mojo.downloads, 1);
+    }
+
+    @Test
+    public void testPagesDownloadedOnce() throws Exception {
+        CountingMojo mojo = new CountingMojo(10);
+        PageSinkFactory sinkFactory = new PageSinkFactory();
+        for (Locale locale : LOCALES) {
+            mojo.generate(new SinkAdapter(), sinkFactory, locale);
+        }
+        assertEquals(mojo.downloads, 1);
+        // 25 issues on 3 pages, for each locale
+        assertEquals(sinkFactory.pages.size(), 3 * LOCALES.length);
+        assertEquals(sinkFactory.pages.get(3), "jira-report-1.html");
+    }
+
+    private static List<JiraIssue> createIssues(int first, int count) {
+        List<JiraIssue> issues = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            JiraIssue issue = new JiraIssue();
+            issue.setKey("TEST-" + i);
+            issue.setSummary("Summary " + i);
+            issue.setType("Bug");
+            issue.setStatus("Closed");
+            issue.setResolution("Fixed");
+            issues.add(issue);
+        }
+        return issues;
+    }
+
+    /**
+     * A report downloading 25 issues from a fake JIRA, counting the downloads.
+     */
+    private static class CountingMojo extends CreateReportMojo {
+
+        private int downloads;
+
+        CountingMojo(int reportPageSize) {
+            this.reportPageSize = reportPageSize;
+            columnNames = "Key,Summary,Status,Resolution";
+            jiraProjectKey = "TEST";
+            releaseVersion = "1.0";
+            upToDateCheck = false;
+            setReportOutputDirectory(OUTPUT_DIRECTORY);
+        }
+
+        @Override
+        public JiraClient getClient() {
+            return null;
+        }
+
+        @Override
+        IssuesDownloader createIssuesDownloader() {
+            return new IssuesDownloader() {
+                @Override
+                public List<JiraIssue> getIssueList() {
+                    downloads++;
+                    return createIssues(1, 25);
+                }
+
+                @Override
+                public void downloadIssues(PageHandler handler) throws MojoFailureException {
+                    downloads++;
+                    handler.handlePage(createIssues(1, 20));
+                    handler.handlePage(createIssues(21, 5));
+                }
+            };
+        }
+    }
+
+    /**
+     * Records the names of the pages written by the report.
+     */
+    private static class PageSinkFactory implements SinkFactory {
+
+        private final List<String> pages = new ArrayList<>();
+
+        @Override
+        public Sink createSink(File outputDir, String outputName) throws IOException {
+            pages.add(outputName);
+            return new SinkAdapter();
+        }
+
+        @Override
+        public Sink createSink(File outputDir, String outputName, String encoding) throws IOException {
+            return createSink(outputDir, outputName);
+        }
+
+        @Override
+        public Sink createSink(OutputStream out) throws IOException {
+            return new SinkAdapter();
+        }
+
+        @Override
+        public Sink createSink(OutputStream out, String encoding) throws IOException {
+            return new SinkAdapter();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira;
+
+import com.github.lucapino.jira.model.JiraIssue;
+import com.github.lucapino.jira.model.ReleaseNotesOutput;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.io.FileUtils;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Runs many release notes executions at once, as a parallel build does, over
+ * the same issues and templates: the Velocity runtime and its template cache
+ * are shared by all of them.
+ */
+public class ParallelReleaseNotesTest {
+
+    private static final int EXECUTIONS = 32;
+    private static final File OUTPUT_DIRECTORY = new File("target/jira/parallel");
+
+    @Test
+    public void testConcurrentExecutions() throws Exception {
+        final File template = new File(OUTPUT_DIRECTORY, "releaseNotes.mustache");
+        FileUtils.writeStringToFile(template, "{{releaseVersion}}\n{{#issues}}{{key}} {{type}} {{summary}}\n{{/issues}}", "UTF-8");
+        final File velocityTemplate = new File(OUTPUT_DIRECTORY, "releaseNotes.vm");
+        FileUtils.writeStringToFile(velocityTemplate, "$releaseVersion\n#foreach($issue in $issues)$issue.key $issue.type $issue.summary\n#end", "UTF-8");
+        final List<JiraIssue> issues = createIssues(500);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Callable<String[]>> executions = new ArrayList<>();
+        for (int i = 0; i < EXECUTIONS; i++) {
+            final GenerateReleaseNotesMojo mojo = new GenerateReleaseNotesMojo();
+            mojo.setReleaseVersion("1.0");
+            final File templateTarget = new File(OUTPUT_DIRECTORY, "notes-" + i + ".txt");
+            final File velocityTarget = new File(OUTPUT_DIRECTORY, "velocity-" + i + ".txt");
+            final File defaultTarget = new File(OUTPUT_DIRECTORY, "default-" + i + ".txt");
+            mojo.outputs = Arrays.asList(new ReleaseNotesOutput(template, templateTarget, null),
+                    new ReleaseNotesOutput(velocityTemplate, velocityTarget, null),
+                    new ReleaseNotesOutput(null, defaultTarget, null));
+            executions.add(new Callable<String[]>() {
+                @Override
+                public String[] call() throws Exception {
+                    start.await();
+                    mojo.output(issues);
+                    return new String[]{
+                        FileUtils.readFileToString(templateTarget, "UTF-8"),
+                        FileUtils.readFileToString(velocityTarget, "UTF-8"),
+                        FileUtils.readFileToString(defaultTarget, "UTF-8")
+                    };
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String[]>> results = new ArrayList<>();
+        try {
+            for (Callable<String[]> execution : executions) {
+                results.add(executor.submit(execution));
+            }
+            start.countDown();
+            String[] expected = results.get(0).get();
+            assertTrue(expected[0].contains("TEST-500 "));
+            assertEquals(expected[1], expected[0]);
+            assertTrue(expected[2].contains("TEST-500"));
+            for (Future<String[]> result : results) {
+                String[] notes = result.get();
+                assertEquals(notes[0], expected[0]);
+                assertEquals(notes[1], expected[1]);
+                assertEquals(notes[2], expected[2]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<JiraIssue> createIssues(int count) {
+        List<JiraIssue> issues = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            JiraIssue issue = new JiraIssue();
+            issue.setKey("TEST-" + i);
+            issue.setLink("https://jira.example.org/browse/TEST-" + i);
+            issue.setType(i % 3 == 0 ? "Bug" : i % 3 == 1 ? "New Feature" : "Improvement");
+            issue.setReporter("reporter" + i % 7);
+            issue.setSummary("Summary " + i);
+            issues.add(issue);
+        }
+        return issues;
+    }
+}
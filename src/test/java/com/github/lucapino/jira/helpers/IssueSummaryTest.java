@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.JiraIssue;
+import java.util.Calendar;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+public class IssueSummaryTest {
+
+    @Test
+    public void testCounts() {
+        IssueSummary summary = new IssueSummary();
+        String[] statuses = {"Closed", "Resolved", "Closed", "Closed"};
+        Calendar calendar = Calendar.getInstance();
+        for (int i = 0; i < statuses.length; i++) {
+            JiraIssue issue = new JiraIssue();
+            issue.setStatus(statuses[i]);
+            issue.setAssignee(i == 0 ? null : "dev" + i % 2);
+            calendar.set(2017, i == 3 ? Calendar.MARCH : Calendar.JANUARY, 15);
+            issue.setCreated(calendar.getTime());
+            summary.add(issue);
+        }
+
+        assertEquals(summary.getIssueCount(), 4);
+        IssueSummary.Counter statusCounter = summary.getCounters()[0];
+        Integer[] codes = statusCounter.getCodesByCount();
+        assertEquals(codes.length, 2);
+        assertEquals(statusCounter.getValue(codes[0]), "Closed");
+        assertEquals(statusCounter.getCount(codes[0]), 3);
+        IssueSummary.Counter assigneeCounter = summary.getCounters()[3];
+        assertEquals(assigneeCounter.getNoValueCount(), 1);
+        assertEquals(summary.getCounters()[4].getNoValueCount(), 4);
+
+        IssueSummary.Histogram created = summary.getHistograms()[0];
+        int january = 2017 * 12;
+        assertEquals(created.getFirstMonth(), january);
+        assertEquals(created.getLastMonth(), january + 2);
+        assertEquals(created.getCount(january), 3);
+        assertEquals(created.getCount(january + 1), 0);
+        assertEquals(summary.getHistograms()[1].getNoValueCount(), 4);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.JiraIssue;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import org.testng.annotations.Test;
+
+public class IssuesSnapshotTest {
+
+    private static final String JQL = "project = 'RF' AND fixVersion = '3.3.2.SR1'";
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        File file = new File("target/jira/issues-test.bin");
+        String fingerprint = IssuesSnapshot.fingerprint("https://issues.jboss.org", null, 100);
+        List<JiraIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            JiraIssue issue = new JiraIssue();
+            issue.setId(String.valueOf(1000 + i));
+            issue.setKey("RF-" + i);
+            issue.setStatus("Resolved");
+            issue.setType("Bug");
+            issue.setSummary("Summary " + i);
+            issue.setCreated(new Date(1500000000000L + i));
+            issue.setResolved(new Date(1500000100000L + i));
+            issue.addComponent("core");
+            issues.add(issue);
+        }
+
+        IssuesSnapshot.write(file, JQL, fingerprint, issues);
+        List<JiraIssue> read = IssuesSnapshot.read(file, JQL, fingerprint, 60000);
+
+        assertEquals(read.size(), 3);
+        assertEquals(read.get(1).getKey(), "RF-2");
+        assertEquals(read.get(1).getStatus(), "Resolved");
+        assertEquals(read.get(2).getCreated(), new Date(1500000000003L));
+        assertEquals(read.get(0).getComponents().get(0), "core");
+        assertNull(read.get(0).getAssignee());
+        assertNull(read.get(0).getUpdated());
+        assertEquals(read.get(0).getResolved(), new Date(1500000100001L));
+        // a different query must not reuse the snapshot
+        assertNull(IssuesSnapshot.read(file, JQL + " AND status = Closed", fingerprint, 60000));
+    }
+}
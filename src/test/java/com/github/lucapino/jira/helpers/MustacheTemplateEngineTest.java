@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.JiraIssue;
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+public class MustacheTemplateEngineTest {
+
+    @Test
+    public void testRender() throws Exception {
+        File template = new File("target/jira/releaseNotes.mustache");
+        FileUtils.writeStringToFile(template, "Release {{releaseVersion}}\n"
+                + "{{#issues}}\n"
+                + "* {{key}} {{summary}} ({{type}})\n"
+                + "{{/issues}}\n"
+                + "{{^issues}}\n"
+                + "No issues\n"
+                + "{{/issues}}\n"
+                + "{{! comment }}\n"
+                + "{{{raw}}} {{raw}}", "UTF-8");
+        List<JiraIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            JiraIssue issue = new JiraIssue();
+            issue.setKey("TEST-" + i);
+            issue.setSummary("Summary " + i);
+            issue.setType("Bug");
+            issues.add(issue);
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("releaseVersion", "1.0");
+        parameters.put("issues", issues);
+        parameters.put("raw", "<b>");
+
+        StringWriter writer = new StringWriter();
+        TemplateEngine engine = TemplateEngines.get(null, template);
+        assertTrue(engine instanceof MustacheTemplateEngine);
+        engine.render(template, parameters, writer);
+
+        assertEquals(writer.toString(), "Release 1.0\n"
+                + "* TEST-1 Summary 1 (Bug)\n"
+                + "* TEST-2 Summary 2 (Bug)\n"
+                + "<b> &lt;b&gt;");
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import com.github.lucapino.jira.model.JiraIssue;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.project.MavenProject;
+import static org.testng.Assert.assertEquals;
+import org.testng.Reporter;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ReleaseNotesRendererTest {
+
+    private File template;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        // the bundled template, as a file like user templates
+        template = File.createTempFile("releaseNotes", ".vm");
+        template.deleteOnExit();
+        FileUtils.copyURLToFile(getClass().getResource("/releaseNotes.vm"), template);
+    }
+
+    @Test
+    public void testSameOutputAsTemplate() throws Exception {
+        List<JiraIssue> issues = createIssues(3);
+        assertEquals(normalize(render(issues)), normalize(evaluate(issues)));
+    }
+
+    /**
+     * Compares the rendering times; not part of the unit tests, run it by
+     * enabling the <code>benchmark</code> group.
+     */
+    @Test(groups = "benchmark", enabled = false)
+    public void testBenchmark() throws Exception {
+        List<JiraIssue> issues = createIssues(2000);
+        int runs = 20;
+        // warm up both paths
+        render(issues);
+        evaluate(issues);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            render(issues);
+        }
+        long compiled = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            evaluate(issues);
+        }
+        long interpreted = System.nanoTime() - start;
+        Reporter.log(String.format("Release notes of %d issues: compiled %.2f ms, Velocity %.2f ms",
+                issues.size(), compiled / runs / 1e6, interpreted / runs / 1e6));
+    }
+
+    private static String render(List<JiraIssue> issues) throws Exception {
+        StringWriter writer = new StringWriter();
+        ReleaseNotesRenderer.render("Test Project", "1.0", issues, writer);
+        return writer.toString();
+    }
+
+    private String evaluate(List<JiraIssue> issues) throws IOException {
+        MavenProject project = new MavenProject();
+        project.setName("Test Project");
+        HashMap<Object, Object> parameters = new HashMap<>();
+        parameters.put("issues", issues);
+        parameters.put("releaseVersion", "1.0");
+        return new TemplateEvaluator(project).evaluate(template, parameters);
+    }
+
+    private static List<JiraIssue> createIssues(int count) {
+        List<JiraIssue> issues = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            JiraIssue issue = new JiraIssue();
+            issue.setKey("TEST-" + i);
+            issue.setLink("https://jira.example.org/browse/TEST-" + i);
+            issue.setType(i % 2 == 0 ? "Bug" : "New Feature");
+            issue.setReporter("reporter" + i % 7);
+            issue.setSummary("Fix [component " + i + "] startup");
+            issues.add(issue);
+        }
+        return issues;
+    }
+
+    /**
+     * Velocity keeps the indentation of the directive lines in front of the
+     * next line, which is not relevant to the markup. Line breaks and the
+     * spaces within the lines are compared as they are.
+     */
+    private static String normalize(String text) {
+        return text.replaceAll("(?m)^[ \\t]+", "");
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2017 Luca Tagliani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.lucapino.jira.helpers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+public class VersionOrderingTest {
+
+    @Test
+    public void testOrdering() {
+        List<String> versions = Arrays.asList("10.0", "1.0.SR1", "9.0", "1.0.Final", "1.0.RC2", "1.0.RC10", "1.0.Beta1", "1.0.1");
+        Collections.sort(versions, new VersionOrdering());
+        assertEquals(versions, Arrays.asList("1.0.Beta1", "1.0.RC2", "1.0.RC10", "1.0.Final", "1.0.SR1", "1.0.1", "9.0", "10.0"));
+    }
+
+    @Test
+    public void testQualifierAliases() {
+        VersionOrdering ordering = new VersionOrdering();
+        assertTrue(ordering.compare("1.0.CR1", "1.0-rc-2") < 0);
+        assertTrue(ordering.compare("1.0.GA", "1.0.SP1") < 0);
+        assertTrue(ordering.compare("1.0-SNAPSHOT", "1.0") < 0);
+    }
+
+    @Test
+    public void testPattern() {
+        VersionOrdering ordering = new VersionOrdering("Release (.*)", null);
+        assertTrue(ordering.compare("Release 10", "Release 9") > 0);
+        // names not matching the pattern come first
+        assertTrue(ordering.compare("Backlog", "Release 1") < 0);
+    }
+
+    @Test
+    public void testEquals() {
+        assertEquals(new VersionOrdering(null, VersionOrdering.DEFAULT_QUALIFIERS), new VersionOrdering());
+        assertEquals(new VersionOrdering("Release (.*)", null).hashCode(), new VersionOrdering("Release (.*)", null).hashCode());
+        assertFalse(new VersionOrdering("Release (.*)", null).equals(new VersionOrdering()));
+    }
+}